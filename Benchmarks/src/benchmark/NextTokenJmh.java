@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import lexer.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *  NextTokenJmh is the JMH version of NextTokenBenchmark: it measures
+ *  Lexer.nextToken() over the synthetic programs written by Corpus, for
+ *  each shape and size<br>
+ *  An operation scans a whole program and passes every token to a
+ *  Blackhole; the Lexer is built (and the file read) before each
+ *  operation and is not timed. The tokens are counted as well, so JMH
+ *  reports tokens/sec beside ops/sec. With <i>-prof gc</i> JMH reports the
+ *  bytes allocated per operation, but they include building the Lexer;
+ *  NextTokenBenchmark, which stays as the plain Java fallback, reports
+ *  the bytes allocated by the scanning alone<br>
+ *  The corpus files are written to <i>xcorpus</i> in java.io.tmpdir the
+ *  first time they are needed, as NextTokenBenchmark does. The sizes
+ *  default to 1K and 1M; 100M needs a heap of about 1GB:<pre>
+ *  java -jar Benchmarks/target/benchmarks.jar NextTokenJmh -p size=100M -jvmArgs -Xmx1g
+ *  </pre>
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = NextTokenBenchmark.WARMUP_ITERATIONS, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = NextTokenBenchmark.ITERATIONS, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class NextTokenJmh {
+    @Param({"ids", "numbers", "chars", "comments", "nesting"})
+    public String shape;
+
+    @Param({"1K", "1M"})
+    public String size;
+
+    private String file;
+    private Lexer lex;
+
+/**
+ *  The tokens scanned in an iteration, reported by JMH as tokens/sec
+*/
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            tokens = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "xcorpus");
+        dir.mkdirs();
+        File corpus = new File(dir, shape + "-" + size + ".x");
+        long bytes = Corpus.parseSize(size);
+        if (!corpus.isFile() || corpus.length() < bytes) {
+            new Corpus(shape, 413).write(corpus, bytes);
+        }
+        file = corpus.getPath();
+    }
+
+    @Setup(Level.Invocation)
+    public void buildLexer() throws Exception {
+        lex = new Lexer(file);
+    }
+
+    @Benchmark
+    public void nextToken(Counters counters, Blackhole blackhole) {
+        long count = 0;
+        for (Token token = lex.nextToken(); token != null; token = lex.nextToken()) {
+            blackhole.consume(token);
+            count++;
+        }
+        counters.tokens += count;
+    }
+}
@@ -1,13 +1,15 @@
 package ast;
 
 import java.util.*;
+import java.util.function.Supplier;
 import visitor.*;
 
 /**
  *  The AST Abstract class is the Abstract Syntax Tree representation;
  *  each node contains<ol><li> references to its kids, <li>its unique node number
  *  used for printing/debugging, <li>its decoration used for constraining
- *  and code generation, and <li>a label for code generation</ol>
+ *  and code generation, <li>a label for code generation, and <li>the span
+ *  of tokens it was parsed from</ol>
  *  The AST is built by the Parser
 */
 public abstract class AST {
@@ -15,13 +17,16 @@ public abstract class AST {
     protected int nodeNum;
     protected AST decoration;
     protected String label = "";   // label for generated code of tree
+    protected int start = -1, end = -1;  // tree was parsed from tokens start..end-1
+    private int shift;             // still to be added to the spans of the kids
+    private Supplier<ArrayList<AST>> lazyKids;  // makes the kids; null once made
 
-    static int NodeCount = 0;
-
+/**
+ *  The node is numbered by whoever creates it; the Parser numbers the
+ *  nodes in the order it creates them (see CompilationContext)
+*/
     public AST() {
         kids = new ArrayList<AST>();
-        NodeCount++;
-        nodeNum = NodeCount;
     }
 
     public void setDecoration(AST t) {
@@ -36,6 +41,81 @@ public abstract class AST {
         return nodeNum;
     }
 
+/**
+ *  give this node its number; also used when trees built on several
+ *  threads are numbered again in the order a single Parser would have
+ *  created them
+ *  @param nodeNum is the new number of the node
+*/
+    public void setNodeNum(int nodeNum) {
+        this.nodeNum = nodeNum;
+    }
+
+/**
+ *  @return the index of the first token of the tree, or -1 if it was not
+ *  built by the Parser
+*/
+    public int getStart() {
+        return start;
+    }
+
+/**
+ *  @return the index just past the last token of the tree
+*/
+    public int getEnd() {
+        return end;
+    }
+
+/**
+ *  @param start is the index of the first token of the tree
+ *  @param end is the index just past its last token
+*/
+    public void setSpan(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+/**
+ *  move the spans of the tree and all of its nodes, e.g. after tokens
+ *  before it have been added or removed; the kids are moved when they are
+ *  next asked for, so a whole tree is moved in constant time
+ *  @param delta is the number of tokens to move by
+*/
+    public void shift(int delta) {
+        start += delta;
+        end += delta;
+        shift += delta;
+    }
+
+/**
+ *  have the kids made the first time they are asked for (or added to)
+ *  rather than now, e.g. by a view of an ASTArena
+ *  @param kids makes the list of kids
+*/
+    protected void setLazyKids(Supplier<ArrayList<AST>> kids) {
+        lazyKids = kids;
+    }
+
+/**
+ *  make the kids if they are made lazily and have not been made yet
+*/
+    private void makeKids() {
+        if (lazyKids != null) {
+            kids = lazyKids.get();
+            lazyKids = null;
+        }
+    }
+
+/**
+ *  move the kids by the shifts that have not been passed on to them
+*/
+    private void settle() {
+        for (AST kid : kids) {
+            kid.shift(shift);
+        }
+        shift = 0;
+    }
+
 /**
  *  get the AST corresponding to the kid
  *  @param i is the number of the needed kid; it starts with kid number one
@@ -45,6 +125,9 @@ public abstract class AST {
         if ( (i <= 0) || (i > kidCount())) {
             return null;
         }
+        if (shift != 0) {
+            settle();
+        }
         return kids.get(i - 1);
     }
 
@@ -52,10 +135,15 @@ public abstract class AST {
  *  @return the number of kids at this node
 */
     public int kidCount() {
+        makeKids();
         return kids.size();
     }
 
     public ArrayList<AST> getKids() {
+        makeKids();
+        if (shift != 0) {
+            settle();
+        }
         return kids;
     }
 
@@ -68,7 +156,27 @@ public abstract class AST {
 */
     public abstract Object accept(ASTVisitor v);
 
+/**
+ *  accept a typed visitor; this method must be defined in each of the
+ *  subclasses of AST, calling the visitor method for the subclass
+ *  @param v is the visitor
+ *  @param c is the context of the visit, as the visitor defines it
+ *  @return the result of the visit
+*/
+    public abstract <R, C> R accept(GenericASTVisitor<R, C> v, C c);
+
+/**
+ *  accept a typed visitor whose result is an int, which is not boxed
+*/
+    public abstract <C> int accept(IntASTVisitor<C> v, C c);
+
+/**
+ *  accept a typed visitor that has no result
+*/
+    public abstract <C> void accept(VoidASTVisitor<C> v, C c);
+
     public AST addKid(AST kid) {
+        makeKids();
         kids.add(kid);
         return this;
     }
@@ -0,0 +1,349 @@
+package ast;
+
+import java.util.*;
+import java.util.function.Function;
+import lexer.*;
+
+/**
+ *  An ASTArena holds a whole AST in a few arrays of primitives rather than
+ *  a tree of objects: for each node its kind, its first kid, its next
+ *  sibling, the id of its symbol, its span of tokens and its number, so a
+ *  node costs a few ints. A node is an index into the arrays and the nodes
+ *  are stored in the order a walk of the tree visits them, so the first kid
+ *  of a node follows it and a walk reads the arrays from start to end<br>
+ *  An arena is filled by a Parser streaming the program to it (see
+ *  Parser.execute(ParseListener)), when no tree is built at all, or is
+ *  copied from a tree by of(). The nodes are read through the arrays
+ *  (kind, firstKid, nextSibling, ...) or through view(), which gives an
+ *  AST of the node's class that any ASTVisitor may visit; the views of its
+ *  kids are created the first time they are asked for. Views are only for
+ *  reading: changes to a view or its kids are not made in the arena<br>
+ *  Decorations, labels and frame offsets are not kept
+*/
+public class ASTArena implements ParseListener {
+    // a kind of node: its class, and how a view of a node of the kind is
+    // created from the node's symbol
+    private static class Kind {
+        final Class<? extends AST> type;
+        final Function<Symbol, AST> view;
+
+        Kind(Class<? extends AST> type, Function<Symbol, AST> view) {
+            this.type = type;
+            this.view = view;
+        }
+    }
+
+    // the kinds of node, by number; a LazyBlockTree is kept as a BlockTree
+    private static final Kind[] KINDS = {
+        new Kind(ProgramTree.class, symbol -> new ProgramTree()),
+        new Kind(BlockTree.class, symbol -> new BlockTree()),
+        new Kind(FunctionDeclTree.class, symbol -> new FunctionDeclTree()),
+        new Kind(CallTree.class, symbol -> new CallTree()),
+        new Kind(DeclTree.class, symbol -> new DeclTree()),
+        new Kind(IntTypeTree.class, symbol -> new IntTypeTree()),
+        new Kind(BoolTypeTree.class, symbol -> new BoolTypeTree()),
+        new Kind(FormalsTree.class, symbol -> new FormalsTree()),
+        new Kind(ActualArgsTree.class, symbol -> new ActualArgsTree()),
+        new Kind(IfTree.class, symbol -> new IfTree()),
+        new Kind(WhileTree.class, symbol -> new WhileTree()),
+        new Kind(ReturnTree.class, symbol -> new ReturnTree()),
+        new Kind(AssignTree.class, symbol -> new AssignTree()),
+        new Kind(IntTree.class, IntTree::new),
+        new Kind(IdTree.class, IdTree::new),
+        new Kind(RelOpTree.class, RelOpTree::new),
+        new Kind(AddOpTree.class, AddOpTree::new),
+        new Kind(MultOpTree.class, MultOpTree::new),
+        new Kind(CharTree.class, CharTree::new),
+        new Kind(CharTypeTree.class, symbol -> new CharTypeTree()),
+        new Kind(DoWhileTree.class, symbol -> new DoWhileTree()),
+        new Kind(FloatTree.class, FloatTree::new),
+        new Kind(FloatTypeTree.class, symbol -> new FloatTypeTree()),
+        new Kind(ScientificNTree.class, ScientificNTree::new),
+        new Kind(UnaryOpTree.class, UnaryOpTree::new) };
+    private static final HashMap<Class<?>, Integer> kindNumbers = new HashMap<Class<?>, Integer>();
+    static {
+        for (int k = 0; k < KINDS.length; k++) {
+            kindNumbers.put(KINDS[k].type, k);
+        }
+        kindNumbers.put(LazyBlockTree.class, kindNumbers.get(BlockTree.class));
+    }
+
+    private final SymbolTable symbols;  // table the symbol ids refer to
+    private byte[] kinds = new byte[256];
+    private int[] firstKids = new int[256];     // -1 for none
+    private int[] nextSiblings = new int[256];  // -1 for none
+    private int[] symbolIds = new int[256];     // -1 for none
+    private int[] starts = new int[256], ends = new int[256];
+    private int[] nodeNums = new int[256];
+    private int size = 0;
+    // nodes entered but not left while the arena is filled, with the last
+    // kid added to each so far
+    private int[] open = new int[16], lastKids = new int[16];
+    private int depth = 0;
+
+/**
+ *  @param symbols is the SymbolTable of the tokens the nodes are parsed from
+*/
+    public ASTArena(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+/**
+ *  Copy a tree into an arena
+ *  @param tree is the tree
+ *  @param symbols is the SymbolTable of its symbols
+ *  @return the arena
+*/
+    public static ASTArena of(AST tree, SymbolTable symbols) {
+        ASTArena arena = new ASTArena(symbols);
+        AST[] nodes = new AST[64];
+        int[] next = new int[64];  // next kid of each node, from 1
+        int top = 0;
+        nodes[top] = tree;
+        next[top++] = 1;
+        arena.enter(tree);
+        while (top > 0) {
+            AST node = nodes[top - 1];
+            if (next[top - 1] > node.kidCount()) {
+                arena.leave(node);
+                top--;
+                continue;
+            }
+            AST kid = node.getKid(next[top - 1]++);
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * top);
+                next = Arrays.copyOf(next, 2 * top);
+            }
+            nodes[top] = kid;
+            next[top++] = 1;
+            arena.enter(kid);
+        }
+        return arena;
+    }
+
+    public void enter(AST t) {
+        open(add(t));
+    }
+
+/**
+ *  make a node the innermost open node; the nodes added until it is
+ *  closed are its kids
+*/
+    void open(int node) {
+        if (depth == open.length) {
+            open = Arrays.copyOf(open, 2 * depth);
+            lastKids = Arrays.copyOf(lastKids, 2 * depth);
+        }
+        open[depth] = node;
+        lastKids[depth++] = -1;
+    }
+
+    public void leave(AST t) {
+        int node = open[--depth];
+        starts[node] = t.getStart();  // the span may not be known until now
+        ends[node] = t.getEnd();
+    }
+
+    public void literal(AST t) {
+        add(t);
+    }
+
+/**
+ *  close the innermost open node
+*/
+    void close() {
+        depth--;
+    }
+
+    private int add(AST t) {
+        Symbol symbol = symbolOf(t);
+        Integer kind = kindNumbers.get(t.getClass());
+        if (kind == null) {
+            throw new IllegalArgumentException("no kind of node for " + t.getClass().getName());
+        }
+        return add(kind, (symbol == null) ? -1 : symbol.getId(),
+            t.getStart(), t.getEnd(), t.getNodeNum());
+    }
+
+/**
+ *  add a node as the last kid of the innermost open node
+ *  @param kind is its kind
+ *  @param symbolId is the id of its symbol, or -1
+ *  @param start is the index of its first token
+ *  @param end is the index just past its last token
+ *  @param nodeNum is its number
+ *  @return the new node
+*/
+    int add(int kind, int symbolId, int start, int end, int nodeNum) {
+        if (size == kinds.length) {
+            int length = 2 * size;
+            kinds = Arrays.copyOf(kinds, length);
+            firstKids = Arrays.copyOf(firstKids, length);
+            nextSiblings = Arrays.copyOf(nextSiblings, length);
+            symbolIds = Arrays.copyOf(symbolIds, length);
+            starts = Arrays.copyOf(starts, length);
+            ends = Arrays.copyOf(ends, length);
+            nodeNums = Arrays.copyOf(nodeNums, length);
+        }
+        int node = size++;
+        kinds[node] = (byte)kind;
+        firstKids[node] = -1;
+        nextSiblings[node] = -1;
+        symbolIds[node] = symbolId;
+        starts[node] = start;
+        ends[node] = end;
+        nodeNums[node] = nodeNum;
+        if (depth > 0) {
+            if (lastKids[depth - 1] < 0) {
+                firstKids[open[depth - 1]] = node;
+            } else {
+                nextSiblings[lastKids[depth - 1]] = node;
+            }
+            lastKids[depth - 1] = node;
+        }
+        return node;
+    }
+
+/**
+ *  @return the symbol of an id, literal or operator tree, or null
+*/
+    static Symbol symbolOf(AST t) {
+        if (t instanceof IdTree) {
+            return ((IdTree)t).getSymbol();
+        } else if (t instanceof IntTree) {
+            return ((IntTree)t).getSymbol();
+        } else if (t instanceof FloatTree) {
+            return ((FloatTree)t).getSymbol();
+        } else if (t instanceof CharTree) {
+            return ((CharTree)t).getSymbol();
+        } else if (t instanceof ScientificNTree) {
+            return ((ScientificNTree)t).getSymbol();
+        } else if (t instanceof RelOpTree) {
+            return ((RelOpTree)t).getSymbol();
+        } else if (t instanceof AddOpTree) {
+            return ((AddOpTree)t).getSymbol();
+        } else if (t instanceof MultOpTree) {
+            return ((MultOpTree)t).getSymbol();
+        } else if (t instanceof UnaryOpTree) {
+            return ((UnaryOpTree)t).getSymbol();
+        }
+        return null;
+    }
+
+/**
+ *  @return the table the ids of the symbols refer to
+*/
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+/**
+ *  @return the number of kinds of node
+*/
+    public static int kindCount() {
+        return KINDS.length;
+    }
+
+/**
+ *  @return the number of nodes; the root is node 0
+*/
+    public int size() {
+        return size;
+    }
+
+/**
+ *  @param node is the node
+ *  @return its kind, an index into the kinds given by kindClass
+*/
+    public int kind(int node) {
+        return kinds[node];
+    }
+
+/**
+ *  @param kind is a kind of node
+ *  @return the AST class of the nodes of that kind
+*/
+    public static Class<? extends AST> kindClass(int kind) {
+        return KINDS[kind].type;
+    }
+
+/**
+ *  @return the first kid of the node, or -1 if it has none
+*/
+    public int firstKid(int node) {
+        return firstKids[node];
+    }
+
+/**
+ *  @return the next kid of the node's parent, or -1 if it is the last
+*/
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+/**
+ *  @return the symbol of an id, literal or operator, or null
+*/
+    public Symbol symbol(int node) {
+        return (symbolIds[node] < 0) ? null : symbols.get(symbolIds[node]);
+    }
+
+/**
+ *  @return the index of the first token of the node
+*/
+    public int start(int node) {
+        return starts[node];
+    }
+
+/**
+ *  @return the index just past the last token of the node
+*/
+    public int end(int node) {
+        return ends[node];
+    }
+
+/**
+ *  @return the number the Parser gave the node
+*/
+    public int nodeNum(int node) {
+        return nodeNums[node];
+    }
+
+/**
+ *  @return a view of the whole tree
+*/
+    public AST getRoot() {
+        return view(0);
+    }
+
+/**
+ *  Create a view of a node, an AST for reading it; it is an instance of
+ *  the node's class, with its number and span, and its kids are views too,
+ *  created when they are first asked for. Views are not kept by the arena,
+ *  so each call creates a new one, and a view must not be changed
+ *  @param node is the node
+ *  @return the view
+*/
+    public AST view(int node) {
+        int kind = kinds[node];
+        if (kind < 0 || kind >= KINDS.length) {
+            throw new IllegalStateException("unknown kind " + kind + " of node " + node);
+        }
+        AST t = KINDS[kind].view.apply(symbol(node));
+        t.setNodeNum(nodeNums[node]);
+        t.setSpan(starts[node], ends[node]);
+        t.setLazyKids(() -> kidViews(node));
+        return t;
+    }
+
+/**
+ *  @return views of the kids of the node
+*/
+    private ArrayList<AST> kidViews(int node) {
+        ArrayList<AST> views = new ArrayList<AST>();
+        for (int kid = firstKids[node]; kid >= 0; kid = nextSiblings[kid]) {
+            views.add(view(kid));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,244 @@
+package ast;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import lexer.*;
+
+/**
+ *  ASTFile writes an ASTArena to a file in a compact binary form and
+ *  loads it back<br>
+ *  The file holds "AST", a version byte and a fingerprint of the grammar,
+ *  then the symbols of the tree
+ *  and then its nodes in the order they are stored in the arena (a walk of
+ *  the tree); all numbers are varints (7 bits a byte, low bits first) and
+ *  those that may be negative are zigzag coded:<pre>
+ *  file   -> 'A' 'S' 'T' version grammar count symbol* count node*
+ *  symbol -> kind length utf-8-byte*
+ *  node   -> kind kids symbol start length number
+ *  </pre>
+ *  where grammar is 4 bytes hashed from the names of the token kinds and
+ *  node kinds, whose numbers the file holds, so a file written before
+ *  either changed is not loaded; a node's symbol is its index in the symbols plus 1 (0 for none),
+ *  length is end - start, and start and number are the differences from
+ *  those of the node before. A file is loaded by mapping it into memory and
+ *  decoding the nodes from the mapping straight into the arena's arrays
+*/
+public class ASTFile {
+    private static final int VERSION = 1;
+    private static final Tokens[] KINDS = Tokens.values();
+    private static final int GRAMMAR = grammar();
+
+    private byte[] bytes = new byte[1 << 12];  // being written
+    private int length = 0;
+
+/**
+ *  Write an arena to a file
+ *  @param arena is the arena
+ *  @param file is the file; it is replaced if it exists
+ *  @throws IOException if the file cannot be written
+*/
+    public static void write(ASTArena arena, Path file) throws IOException {
+        ASTFile out = new ASTFile();
+        out.put('A');
+        out.put('S');
+        out.put('T');
+        out.put(VERSION);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.put(GRAMMAR >>> shift);
+        }
+        // the symbols, numbered in the order they are first used
+        HashMap<Integer, Integer> index = new HashMap<Integer, Integer>();
+        ArrayList<Symbol> symbols = new ArrayList<Symbol>();
+        for (int node = 0; node < arena.size(); node++) {
+            Symbol symbol = arena.symbol(node);
+            if (symbol != null && !index.containsKey(symbol.getId())) {
+                index.put(symbol.getId(), symbols.size());
+                symbols.add(symbol);
+            }
+        }
+        out.varint(symbols.size());
+        for (Symbol symbol : symbols) {
+            byte[] name = symbol.toString().getBytes(StandardCharsets.UTF_8);
+            out.varint(symbol.getKind().ordinal());
+            out.varint(name.length);
+            for (byte b : name) {
+                out.put(b);
+            }
+        }
+        out.varint(arena.size());
+        int last = 0, lastStart = 0;  // number and start of the node before
+        for (int node = 0; node < arena.size(); node++) {
+            int kids = 0;
+            for (int kid = arena.firstKid(node); kid >= 0; kid = arena.nextSibling(kid)) {
+                kids++;
+            }
+            Symbol symbol = arena.symbol(node);
+            out.varint(arena.kind(node));
+            out.varint(kids);
+            out.varint((symbol == null) ? 0 : index.get(symbol.getId()) + 1);
+            out.varint(zigzag(arena.start(node) - lastStart));
+            out.varint(zigzag(arena.end(node) - arena.start(node)));
+            out.varint(zigzag(arena.nodeNum(node) - last));
+            last = arena.nodeNum(node);
+            lastStart = arena.start(node);
+        }
+        Files.write(file, Arrays.copyOf(out.bytes, out.length));
+    }
+
+/**
+ *  @return a hash of the names of the token kinds and node kinds, in order
+*/
+    private static int grammar() {
+        int hash = 0;
+        for (Tokens kind : KINDS) {
+            hash = 31 * hash + kind.name().hashCode();
+        }
+        for (int kind = 0; kind < ASTArena.kindCount(); kind++) {
+            hash = 31 * hash + ASTArena.kindClass(kind).getName().hashCode();
+        }
+        return hash;
+    }
+
+    private void put(int b) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, 2 * length);
+        }
+        bytes[length++] = (byte)b;
+    }
+
+    private void varint(int n) {
+        while ((n & ~0x7f) != 0) {
+            put((n & 0x7f) | 0x80);
+            n >>>= 7;
+        }
+        put(n);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unzigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static int varint(ByteBuffer in) throws IOException {
+        int n = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            if (shift == 28 && (b & 0x70) != 0) {
+                break;
+            }
+            n |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return n;
+            }
+        }
+        throw new IOException("number out of range");
+    }
+
+/**
+ *  @return the next number, which must be from 0 to max
+*/
+    private static int varint(ByteBuffer in, int max, String what) throws IOException {
+        int n = varint(in);
+        if (n < 0 || n > max) {
+            throw new IOException(what + " " + (n & 0xffffffffL) + " out of range");
+        }
+        return n;
+    }
+
+/**
+ *  Load an arena from a file; its symbols are entered in a new SymbolTable
+ *  @param file is the file
+ *  @return the arena
+ *  @throws IOException if the file cannot be read or is not a whole AST
+ *  file of this version
+*/
+    public static ASTArena read(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return read(in);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("damaged AST file " + file, e);
+        }
+    }
+
+    private static ASTArena read(ByteBuffer in) throws IOException {
+        if (in.remaining() < 8 || in.get() != 'A' || in.get() != 'S' || in.get() != 'T' ||
+                in.get() != VERSION) {
+            throw new IOException("not an AST file of version " + VERSION);
+        }
+        if (in.getInt() != GRAMMAR) {
+            throw new IOException("AST file of another grammar");
+        }
+        SymbolTable table = new SymbolTable();
+        // each symbol takes at least 2 bytes and each node at least 6
+        int[] ids = new int[varint(in, in.remaining() / 2, "symbol count")];  // id in table of each symbol
+        char[] chars = new char[64];
+        for (int i = 0; i < ids.length; i++) {
+            Tokens kind = KINDS[varint(in, KINDS.length - 1, "kind of symbol")];
+            if (kind == Tokens.BogusToken) {  // never entered in a table
+                throw new IOException("symbol of kind " + kind);
+            }
+            int length = varint(in, in.remaining(), "length of symbol");
+            if (chars.length < length) {
+                chars = new char[Math.max(length, 2 * chars.length)];
+            }
+            boolean ascii = true;
+            for (int j = 0; j < length; j++) {
+                byte b = in.get(in.position() + j);
+                ascii &= b >= 0;
+                chars[j] = (char)b;
+            }
+            if (ascii) {
+                in.position(in.position() + length);
+                ids[i] = table.symbol(chars, 0, length, kind).getId();
+            } else {
+                byte[] name = new byte[length];
+                in.get(name);
+                ids[i] = table.symbol(new String(name, StandardCharsets.UTF_8), kind).getId();
+            }
+        }
+        ASTArena arena = new ASTArena(table);
+        int count = varint(in, in.remaining() / 6, "node count"), last = 0, start = 0;
+        int[] remaining = new int[64];  // kids still to come of each open node
+        int depth = 0;
+        for (int i = 0; i < count; i++) {
+            if (depth == 0 && i > 0) {
+                throw new IOException("node after the end of the tree");
+            }
+            int kind = varint(in, ASTArena.kindCount() - 1, "kind of node");
+            int kids = varint(in, count - i - 1, "number of kids");
+            int symbol = varint(in, ids.length, "symbol");
+            start += unzigzag(varint(in));
+            int end = start + unzigzag(varint(in));
+            last += unzigzag(varint(in));
+            int node = arena.add(kind, (symbol == 0) ? -1 : ids[symbol - 1], start, end, last);
+            if (kids > 0) {
+                arena.open(node);
+                if (depth == remaining.length) {
+                    remaining = Arrays.copyOf(remaining, 2 * depth);
+                }
+                remaining[depth++] = kids;
+            } else {
+                while (depth > 0 && --remaining[depth - 1] == 0) {  // node completes its parent
+                    arena.close();
+                    depth--;
+                }
+            }
+        }
+        if (count == 0 || depth != 0 || in.hasRemaining()) {
+            throw new IOException("the tree does not end with the file");
+        }
+        return arena;
+    }
+}
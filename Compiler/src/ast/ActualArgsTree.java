@@ -11,5 +11,17 @@ public class ActualArgsTree extends AST {
         return v.visitActualArgsTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitActualArgsTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitActualArgsTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitActualArgsTree(this, c);
+    }
+
 }
 
@@ -8,13 +8,29 @@ public class AddOpTree extends AST {
     private Symbol symbol;
 
     public AddOpTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+    public AddOpTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitAddOpTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitAddOpTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitAddOpTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitAddOpTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
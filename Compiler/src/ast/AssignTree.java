@@ -11,5 +11,17 @@ public class AssignTree extends AST {
         return v.visitAssignTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitAssignTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitAssignTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitAssignTree(this, c);
+    }
+
 }
 
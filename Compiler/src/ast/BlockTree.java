@@ -11,5 +11,17 @@ public class BlockTree extends AST {
         return v.visitBlockTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitBlockTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitBlockTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitBlockTree(this, c);
+    }
+
 }
 
@@ -11,5 +11,17 @@ public class BoolTypeTree extends AST {
         return v.visitBoolTypeTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitBoolTypeTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitBoolTypeTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitBoolTypeTree(this, c);
+    }
+
 }
 
@@ -11,13 +11,32 @@ public class CharTree extends AST {
  *  @param tok is the Token containing the char 
 */
     public CharTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol is the Symbol holding the char 
+*/
+    public CharTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitCharTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitCharTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitCharTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitCharTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
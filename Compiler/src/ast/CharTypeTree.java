@@ -11,5 +11,17 @@ public class CharTypeTree extends AST {
         return v.visitCharTypeTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitCharTypeTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitCharTypeTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitCharTypeTree(this, c);
+    }
+
 }
 
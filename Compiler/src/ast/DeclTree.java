@@ -11,5 +11,17 @@ public class DeclTree extends AST {
         return v.visitDeclTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitDeclTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitDeclTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitDeclTree(this, c);
+    }
+
 }
 
@@ -10,5 +10,17 @@ public class DoWhileTree extends AST {
     public Object accept(ASTVisitor v) {
         return v.visitDoWhileTree(this);
     }
+
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitDoWhileTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitDoWhileTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitDoWhileTree(this, c);
+    }
 }
 
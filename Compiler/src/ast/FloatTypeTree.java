@@ -11,5 +11,17 @@ public class FloatTypeTree extends AST {
         return v.visitFloatTypeTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitFloatTypeTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitFloatTypeTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitFloatTypeTree(this, c);
+    }
+
 }
 
@@ -11,5 +11,17 @@ public class FormalsTree extends AST {
         return v.visitFormalsTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitFormalsTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitFormalsTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitFormalsTree(this, c);
+    }
+
 }
 
@@ -11,5 +11,17 @@ public class FunctionDeclTree extends AST {
         return v.visitFunctionDeclTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitFunctionDeclTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitFunctionDeclTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitFunctionDeclTree(this, c);
+    }
+
 }
 
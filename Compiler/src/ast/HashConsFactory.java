@@ -0,0 +1,147 @@
+package ast;
+
+import java.util.*;
+import lexer.Symbol;
+
+/**
+ *  HashConsFactory shares the nodes of pure expressions: ids, literals and
+ *  the operators over them. Two such subtrees with the same classes,
+ *  symbols and shape become one node, so a tree becomes a DAG; e.g. every
+ *  0 in a program is the same IntTree, and so is every a+1 whose a and 1
+ *  are shared. Structurally identical expressions are then the same
+ *  object, which is all common subexpression elimination needs to find
+ *  them<br>
+ *  A shared node stands for several occurrences, so its number, span and
+ *  decoration are kept for each occurrence in a NodeTable instead; those
+ *  in the node itself are its first occurrence's. Calls are never shared,
+ *  nor is anything above them. A shared IdTree is one node for every
+ *  occurrence of the name, whatever it refers to, so it must not be given
+ *  a frame offset<br>
+ *  A factory may share the nodes of several trees; the table it keeps
+ *  (and the trees' duplicate nodes) may be dropped once they are shared
+*/
+public class HashConsFactory {
+
+    // a pure node by what makes it equal to another: its class, its symbol
+    // and its kids, which are shared already so are compared by identity
+    private static class Key {
+        private final Class<?> kind;
+        private final Symbol symbol;
+        private final ArrayList<AST> kids;
+        private final int hash;
+
+        Key(AST t) {
+            kind = t.getClass();
+            symbol = ASTArena.symbolOf(t);
+            kids = t.getKids();
+            int h = kind.hashCode() * 31 + System.identityHashCode(symbol);
+            for (AST kid : kids) {
+                h = h * 31 + System.identityHashCode(kid);
+            }
+            hash = h;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key)o;
+            if (k.hash != hash || k.kind != kind || k.symbol != symbol || k.kids.size() != kids.size()) {
+                return false;
+            }
+            for (int i = 0; i < kids.size(); i++) {
+                if (k.kids.get(i) != kids.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final HashMap<Key, AST> shared = new HashMap<Key, AST>();
+    // the nodes in shared, to tell whether the kids of a node are shared
+    private final IdentityHashMap<AST, Boolean> canonical = new IdentityHashMap<AST, Boolean>();
+
+/**
+ *  @return true if the node is an id, a literal or an operator
+*/
+    private static boolean isPure(AST t) {
+        return t instanceof IdTree || t instanceof IntTree || t instanceof FloatTree ||
+            t instanceof CharTree || t instanceof ScientificNTree || t instanceof RelOpTree ||
+            t instanceof AddOpTree || t instanceof MultOpTree || t instanceof UnaryOpTree;
+    }
+
+/**
+ *  Share a node whose kids have been shared already
+ *  @param t is the node
+ *  @return the node equal to t that is shared, which is t itself if it is
+ *  the first; or t if it cannot be shared
+*/
+    public AST share(AST t) {
+        if (!isPure(t)) {
+            return t;
+        }
+        for (AST kid : t.getKids()) {
+            if (!canonical.containsKey(kid)) {
+                return t;
+            }
+        }
+        AST s = shared.putIfAbsent(new Key(t), t);
+        if (s != null) {
+            return s;
+        }
+        canonical.put(t, Boolean.TRUE);
+        return t;
+    }
+
+/**
+ *  Share the pure expressions of a tree; the tree is changed in place, its
+ *  duplicate subtrees being replaced by the nodes they are equal to
+ *  @param tree is the tree
+ *  @return the table of its occurrences, with the numbers, spans and
+ *  decorations the nodes had, and its root
+*/
+    public NodeTable shareTree(AST tree) {
+        NodeTable table = new NodeTable();
+        AST[] nodes = new AST[64];
+        int[] next = new int[64];  // next kid of each node, from 1
+        int top = 0;
+        nodes[top] = tree;
+        next[top++] = 1;
+        table.add(tree);
+        while (top > 0) {
+            AST node = nodes[top - 1];
+            if (next[top - 1] <= node.kidCount()) {
+                AST kid = node.getKid(next[top - 1]++);
+                if (top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, 2 * top);
+                    next = Arrays.copyOf(next, 2 * top);
+                }
+                nodes[top] = kid;
+                next[top++] = 1;
+                table.add(kid);
+                continue;
+            }
+            top--;  // the kids of node are shared; now share node
+            AST s = share(node);
+            if (top == 0) {
+                tree = s;
+            } else if (s != node) {
+                nodes[top - 1].getKids().set(next[top - 1] - 2, s);
+            }
+        }
+        table.setRoot(tree);
+        return table;
+    }
+
+/**
+ *  @return the number of distinct nodes shared so far
+*/
+    public int size() {
+        return shared.size();
+    }
+}
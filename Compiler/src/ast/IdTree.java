@@ -12,13 +12,32 @@ public class IdTree extends AST {
  *  @param tok - record the symbol from the token Symbol
 */
     public IdTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol - the Symbol of the id
+*/
+    public IdTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitIdTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitIdTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitIdTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitIdTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
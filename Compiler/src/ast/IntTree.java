@@ -14,13 +14,32 @@ public class IntTree extends AST {
  *  representations
 */
     public IntTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol is the Symbol holding the String representation of the integer literal
+*/
+    public IntTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitIntTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitIntTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitIntTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitIntTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
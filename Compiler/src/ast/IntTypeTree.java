@@ -11,5 +11,17 @@ public class IntTypeTree extends AST {
         return v.visitIntTypeTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitIntTypeTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitIntTypeTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitIntTypeTree(this, c);
+    }
+
 }
 
@@ -0,0 +1,58 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ *  A LazyBlockTree is the body of a function that has been skipped by the
+ *  Parser; it holds only the span of the body's tokens and is parsed the
+ *  first time its kids are asked for (e.g. when a visitor visits them)<br>
+ *  The nodes of the body are numbered when it is parsed, so they follow
+ *  the nodes already created at that time
+*/
+public class LazyBlockTree extends BlockTree {
+    private Supplier<AST> body;   // parses the body; null once it is parsed
+
+/**
+ *  @param start is the index of the body's left brace
+ *  @param end is the index just past its right brace
+ *  @param body parses the body and returns its block tree
+*/
+    public LazyBlockTree(int start, int end, Supplier<AST> body) {
+        setSpan(start, end);
+        this.body = body;
+    }
+
+/**
+ *  parse the body if it has not been parsed yet and take its kids
+*/
+    private void parse() {
+        if (body != null) {
+            kids = body.get().getKids();
+            body = null;
+        }
+    }
+
+/**
+ *  @return true if the body has been parsed
+*/
+    public boolean isParsed() {
+        return body == null;
+    }
+
+    public int kidCount() {
+        parse();
+        return super.kidCount();
+    }
+
+    public ArrayList<AST> getKids() {
+        parse();
+        return super.getKids();
+    }
+
+    public AST addKid(AST kid) {
+        parse();
+        return super.addKid(kid);
+    }
+
+}
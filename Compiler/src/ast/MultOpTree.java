@@ -11,13 +11,32 @@ public class MultOpTree extends AST {
  *  @param tok contains the Symbol that indicates the specific multiplying operator
 */
     public MultOpTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol is the Symbol that indicates the specific multiplying operator
+*/
+    public MultOpTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitMultOpTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitMultOpTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitMultOpTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitMultOpTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
@@ -0,0 +1,76 @@
+package ast;
+
+import java.util.Arrays;
+
+/**
+ *  A NodeTable keeps what belongs to each occurrence of a node in a tree
+ *  whose nodes may be shared (see HashConsFactory): its number, its span
+ *  of tokens and its decoration. A shared node stands for several
+ *  occurrences, so these cannot be kept in the node itself<br>
+ *  Occurrence i is the i-th node a walk of the tree reaches, visiting
+ *  each node before its kids and the kids in order (as visitKids does);
+ *  a shared node is reached once for each of its occurrences
+*/
+public class NodeTable {
+    private AST root;
+    private int[] nodeNums = new int[256];
+    private int[] starts = new int[256], ends = new int[256];
+    private AST[] decorations = new AST[256];
+    private int size = 0;
+
+/**
+ *  record the next occurrence with what its node holds now
+ *  @param t is the node
+*/
+    void add(AST t) {
+        if (size == nodeNums.length) {
+            int length = 2 * size;
+            nodeNums = Arrays.copyOf(nodeNums, length);
+            starts = Arrays.copyOf(starts, length);
+            ends = Arrays.copyOf(ends, length);
+            decorations = Arrays.copyOf(decorations, length);
+        }
+        nodeNums[size] = t.getNodeNum();
+        starts[size] = t.getStart();
+        ends[size] = t.getEnd();
+        decorations[size++] = t.getDecoration();
+    }
+
+    void setRoot(AST root) {
+        this.root = root;
+    }
+
+/**
+ *  @return the root of the tree
+*/
+    public AST getRoot() {
+        return root;
+    }
+
+/**
+ *  @return the number of occurrences
+*/
+    public int size() {
+        return size;
+    }
+
+    public int getNodeNum(int occurrence) {
+        return nodeNums[occurrence];
+    }
+
+    public int getStart(int occurrence) {
+        return starts[occurrence];
+    }
+
+    public int getEnd(int occurrence) {
+        return ends[occurrence];
+    }
+
+    public AST getDecoration(int occurrence) {
+        return decorations[occurrence];
+    }
+
+    public void setDecoration(int occurrence, AST t) {
+        decorations[occurrence] = t;
+    }
+}
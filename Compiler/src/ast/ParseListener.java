@@ -0,0 +1,29 @@
+package ast;
+
+/**
+ *  A ParseListener receives the nodes of a program as they are parsed
+ *  (see Parser.execute(ParseListener)), in the order a walk of the AST
+ *  would visit them; no AST is built, so a node has no kids when it is
+ *  passed to the listener<br>
+ *  Each node is numbered as in the AST that Parser.execute() builds
+*/
+public interface ParseListener {
+
+/**
+ *  a node whose kids follow, up to the matching leave
+ *  @param t is the node
+*/
+    void enter(AST t);
+
+/**
+ *  the end of the kids of a node
+ *  @param t is the node passed to the matching enter
+*/
+    void leave(AST t);
+
+/**
+ *  a node that never has kids: an id, a literal or a type
+ *  @param t is the node
+*/
+    void literal(AST t);
+}
@@ -11,5 +11,17 @@ public class ProgramTree extends AST {
         return v.visitProgramTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitProgramTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitProgramTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitProgramTree(this, c);
+    }
+
 }
 
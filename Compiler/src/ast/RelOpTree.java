@@ -11,13 +11,32 @@ public class RelOpTree extends AST {
  *  @param tok contains the Symbol which indicates the specific relational operator
 */
     public RelOpTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol is the Symbol which indicates the specific relational operator
+*/
+    public RelOpTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitRelOpTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitRelOpTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitRelOpTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitRelOpTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
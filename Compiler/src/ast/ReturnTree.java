@@ -11,5 +11,17 @@ public class ReturnTree extends AST {
         return v.visitReturnTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitReturnTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitReturnTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitReturnTree(this, c);
+    }
+
 }
 
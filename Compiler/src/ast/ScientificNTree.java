@@ -14,13 +14,32 @@ public class ScientificNTree extends AST {
  *  representations
 */
     public ScientificNTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+/**
+ *  @param symbol is the Symbol holding the String representation of the float literal
+*/
+    public ScientificNTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitScientificNTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitScientificNTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitScientificNTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitScientificNTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
@@ -8,13 +8,29 @@ public class UnaryOpTree extends AST {
     private Symbol symbol;
 
     public UnaryOpTree(Token tok) {
-        this.symbol = tok.getSymbol();
+        this(tok.getSymbol());
+    }
+
+    public UnaryOpTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor v) {
         return v.visitUnaryOpTree(this);
     }
 
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitUnaryOpTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitUnaryOpTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitUnaryOpTree(this, c);
+    }
+
     public Symbol getSymbol() {
         return symbol;
     }
@@ -10,5 +10,17 @@ public class WhileTree extends AST {
     public Object accept(ASTVisitor v) {
         return v.visitWhileTree(this);
     }
+
+    public <R, C> R accept(GenericASTVisitor<R, C> v, C c) {
+        return v.visitWhileTree(this, c);
+    }
+
+    public <C> int accept(IntASTVisitor<C> v, C c) {
+        return v.visitWhileTree(this, c);
+    }
+
+    public <C> void accept(VoidASTVisitor<C> v, C c) {
+        v.visitWhileTree(this, c);
+    }
 }
 
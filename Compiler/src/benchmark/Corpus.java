@@ -0,0 +1,186 @@
+package benchmark;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ *  Corpus writes synthetic X programs of a given size for the benchmarks;
+ *  every program is a valid <i>program { ... }</i> and each shape stresses
+ *  a different part of the Lexer:<ul>
+ *  <li><i>ids</i> - long ids and reserved words in assignments, ifs and calls</li>
+ *  <li><i>numbers</i> - ints, floats and scientific numbers</li>
+ *  <li><i>chars</i> - char literals</li>
+ *  <li><i>comments</i> - several comment lines for each statement</li>
+ *  <li><i>nesting</i> - deeply nested blocks and parenthesized expressions</li></ul>
+ *  The programs only depend on the shape, size and seed so runs can be
+ *  compared<br>
+ *  usage: java benchmark.Corpus &lt;shape&gt; &lt;size&gt; &lt;file&gt;
+*/
+public class Corpus {
+    public static final String[] SHAPES = {"ids", "numbers", "chars", "comments", "nesting"};
+    private static final String[] SYLLABLES = {"al", "be", "ga", "del", "ep", "ze", "eta", "th",
+        "io", "ka", "lam", "mu", "nu", "xi", "om", "pi", "rho", "sig", "tau", "up"};
+    private static final String[] OPS = {"+", "-", "*", "/", "|", "&"};
+    private static final String[] RELOPS = {"==", "!=", "<", "<=", ">", ">="};
+    private static final String CHARS = "abcxyzABCXYZ0129+-*/(){}<>=!&|,.;:?# ";
+
+    private final String shape;
+    private final Random random;
+    private final String[] names = new String[512];
+    private PrintWriter out;
+    private long written = 0;  // chars written so far
+    private int depth = 0;     // blocks open inside the program block
+
+/**
+ *  @param shape is one of SHAPES
+ *  @param seed seeds the choice of names, numbers and statements
+*/
+    public Corpus(String shape, long seed) {
+        this.shape = shape;
+        random = new Random(seed);
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int n = 1 + random.nextInt(4); n > 0; n--) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (random.nextBoolean()) {
+                name.append('_').append(random.nextInt(100));
+            }
+            names[i] = name.toString();
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        if (args.length < 3) {
+            System.out.println("***Incorrect usage, try: java benchmark.Corpus <shape> <size> <file>");
+            System.exit(1);
+        }
+        new Corpus(args[0], 413).write(new File(args[2]), parseSize(args[1]));
+    }
+
+/**
+ *  @param size is a number of bytes, which may end in K, M or G
+ *  @return the number of bytes
+*/
+    public static long parseSize(String size) {
+        String units = "KMG";
+        int unit = units.indexOf(Character.toUpperCase(size.charAt(size.length() - 1)));
+        if (unit < 0) {
+            return Long.parseLong(size);
+        }
+        return Long.parseLong(size.substring(0, size.length() - 1)) << (10 * (unit + 1));
+    }
+
+/**
+ *  write a program of about the given size
+ *  @param file is the file to write to
+ *  @param size is the number of bytes to write
+*/
+    public void write(File file, long size) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file), 1 << 16))) {
+            this.out = out;
+            line("program {");
+            for (String name : new String[] {names[0], names[1], names[2], names[3]}) {
+                line("int " + name);
+            }
+            while (written + 2 * depth + 2 < size) {
+                statement();
+            }
+            while (depth > 0) {
+                close();
+            }
+            line("}");
+        }
+    }
+
+    private void line(String s) {
+        out.print(s);
+        out.print('\n');
+        written += s.length() + 1;
+    }
+
+    private void open(String s) {
+        line(s + " {");
+        depth++;
+    }
+
+    private void close() {
+        line("}");
+        depth--;
+    }
+
+    private String name() {
+        return names[random.nextInt(names.length)];
+    }
+
+    private String op() {
+        return OPS[random.nextInt(OPS.length)];
+    }
+
+    private void statement() {
+        switch (shape) {
+        case "ids":
+            switch (random.nextInt(4)) {
+            case 0:
+                line("if " + name() + " " + RELOPS[random.nextInt(RELOPS.length)] + " " + name() +
+                    " then { " + name() + " = " + name() + " } else { " + name() + " = " + name() + " }");
+                break;
+            case 1:
+                line(name() + " = " + name() + "(" + name() + ", " + name() + " " + op() + " " + name() + ")");
+                break;
+            default:
+                line(name() + " = " + name() + " " + op() + " " + name() + " " + op() + " " + name());
+            }
+            break;
+        case "numbers":
+            line(name() + " = " + number() + " " + op() + " " + number() + " " + op() + " " + number());
+            break;
+        case "chars":
+            line(name() + " = " + character() + " " + op() + " " + character() + " " + op() + " " + character());
+            break;
+        case "comments":
+            for (int n = 1 + random.nextInt(4); n > 0; n--) {
+                line("// " + name() + " is " + name() + " " + op() + " " + name() + " unless " + name() + " ends");
+            }
+            line(name() + " = " + name() + " " + op() + " " + name());
+            break;
+        case "nesting":
+            if (depth < 64 && random.nextInt(3) > 0) {
+                open(random.nextBoolean() ? "while " + name() + " < " + name() : "");
+            } else if (depth > 0 && random.nextInt(4) == 0) {
+                close();
+            } else {
+                line(name() + " = " + nested(8 + random.nextInt(24)));
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("unknown corpus shape: " + shape);
+        }
+    }
+
+    private String number() {
+        switch (random.nextInt(4)) {
+        case 0:
+            return Integer.toString(random.nextInt(1000000));
+        case 1:
+            return random.nextInt(1000) + "." + random.nextInt(1000);
+        case 2:
+            return "." + random.nextInt(100000);
+        default:
+            return random.nextInt(10) + "." + random.nextInt(1000) + (random.nextBoolean() ? "e" : "E") +
+                (random.nextBoolean() ? "+" : "-") + random.nextInt(300);
+        }
+    }
+
+    private String character() {
+        return "'" + CHARS.charAt(random.nextInt(CHARS.length())) + "'";
+    }
+
+    private String nested(int levels) {
+        StringBuilder expr = new StringBuilder(name());
+        for (int i = 0; i < levels; i++) {
+            expr.insert(0, '(').append(' ').append(op()).append(' ').append(name()).append(')');
+        }
+        return expr.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import lexer.*;
+
+/**
+ *  KeywordBenchmark times the lookup of the ids and reserved words of a
+ *  source file in three ways:<ul>
+ *  <li><i>string</i> - build a String and look it up, as the Lexer
+ *  once did for every id</li>
+ *  <li><i>layered</i> - look the chars up in the reserved words and then
+ *  in the compilation's SymbolTable</li>
+ *  <li><i>keyword</i> - tell the reserved words apart by the perfect
+ *  hash in TokenDFA and only look the ids up in the SymbolTable</li></ul>
+ *  usage: java benchmark.KeywordBenchmark &lt;file&gt; [iterations]
+*/
+public class KeywordBenchmark {
+    private static final String[] MODES = {"string", "layered", "keyword"};
+
+    public static void main(String args[]) throws Exception {
+        if (args.length == 0) {
+            System.out.println("***Incorrect usage, try: java benchmark.KeywordBenchmark <file> [iterations]");
+            System.exit(1);
+        }
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+        char[] chars = Charset.defaultCharset().decode(
+            ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0])))).toString().toCharArray();
+        Lexer lex = new Lexer(args[0]);
+        int[] words = words(chars, lex);
+        for (int round = 0; round < 3; round++) {  // the first rounds warm up
+            for (int mode = 0; mode < MODES.length; mode++) {
+                long start = System.nanoTime();
+                long sum = lookup(mode, chars, words, lex, iterations);
+                long nanos = System.nanoTime() - start;
+                long count = (long)iterations * words.length / 2;
+                if (round == 2) {
+                    System.out.println(String.format("%-8s %,12d lookups %,14.0f lookups/sec  (%d)",
+                        MODES[mode], count, count * 1e9 / nanos, sum));
+                }
+            }
+        }
+    }
+
+/**
+ *  @return the start and end offsets of every id and reserved word
+*/
+    static int[] words(char[] chars, Lexer lex) {
+        TokenBuffer tokens = new TokenBuffer(lex);
+        int[] words = new int[256];
+        int count = 0;
+        for (int i = 0; tokens.has(i); i++) {
+            if (Character.isJavaIdentifierStart(chars[tokens.start(i)])) {
+                if (count == words.length) {
+                    words = Arrays.copyOf(words, 2 * count);
+                }
+                words[count++] = tokens.start(i);
+                words[count++] = tokens.end(i);
+            }
+        }
+        return Arrays.copyOf(words, count);
+    }
+
+    static long lookup(int mode, char[] chars, int[] words, Lexer lex, int iterations) {
+        long sum = 0;
+        for (int n = 0; n < iterations; n++) {
+            sum += (mode == 0) ? strings(chars, words, lex.getSymbolTable())
+                : (mode == 1) ? layered(chars, words, lex.getSymbolTable())
+                : keywords(chars, words, lex);
+        }
+        return sum;
+    }
+
+    static long strings(char[] chars, int[] words, SymbolTable table) {
+        long sum = 0;
+        for (int i = 0; i < words.length; i += 2) {
+            sum += table.symbol(new String(chars, words[i], words[i + 1] - words[i]), Tokens.Identifier).getId();
+        }
+        return sum;
+    }
+
+    static long layered(char[] chars, int[] words, SymbolTable table) {
+        long sum = 0;
+        for (int i = 0; i < words.length; i += 2) {
+            sum += table.symbol(chars, words[i], words[i + 1], Tokens.Identifier).getId();
+        }
+        return sum;
+    }
+
+    static long keywords(char[] chars, int[] words, Lexer lex) {
+        long sum = 0;
+        for (int i = 0; i < words.length; i += 2) {
+            sum += lex.idSymbol(chars, words[i], words[i + 1]).getId();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,156 @@
+package benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import lexer.*;
+
+/**
+ *  LexerBenchmark scans a source file over and over and reports the
+ *  tokens per second and the bytes allocated per token for both the
+ *  Token building <i>nextToken</i> and the allocation free
+ *  <i>scanToken</i>; only the scanning is measured, building the Lexer
+ *  (and reading the file) is not<br>
+ *  given a directory every file in it is scanned on each iteration;
+ *  a corpus of many small files shows the per file costs, e.g. the
+ *  handling of the end of file; the files are also scanned in parallel,
+ *  each with its own SymbolTable and then all sharing one
+ *  ConcurrentSymbolTable, and each file is split into chunks that are
+ *  scanned in parallel by ParallelLexer; these last times include
+ *  reading the file<br>
+ *  usage: java benchmark.LexerBenchmark &lt;file or directory&gt; [iterations]
+*/
+public class LexerBenchmark {
+    private static final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String args[]) throws Exception {
+        if (args.length == 0) {
+            System.out.println("***Incorrect usage, try: java benchmark.LexerBenchmark <file or directory> [iterations]");
+            System.exit(1);
+        }
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+        String[] files = sourceFiles(args[0]);
+        measure(files, iterations, false);  // warm up
+        measure(files, iterations, true);
+        measureParallel(files, iterations, false);
+        measureParallel(files, iterations, true);
+        measureChunked(files, iterations, false);
+        measureChunked(files, iterations, true);
+    }
+
+/**
+ *  @param name is a source file or a directory of source files
+ *  @return the source files to scan
+*/
+    static String[] sourceFiles(String name) {
+        File[] list = new File(name).listFiles(File::isFile);
+        if (list == null) {
+            return new String[] {name};
+        }
+        String[] files = new String[list.length];
+        for (int i = 0; i < list.length; i++) {
+            files[i] = list[i].getPath();
+        }
+        return files;
+    }
+
+/**
+ *  scan the files the given number of times with each scanning method
+ *  @param files are the source files to scan
+ *  @param iterations is the number of times to scan the files
+ *  @param report if true then print the results
+*/
+    static void measure(String[] files, int iterations, boolean report) throws Exception {
+        for (boolean tokens : new boolean[] {true, false}) {
+            long count = 0, bytes = 0, nanos = 0;
+            for (int i = 0; i < iterations; i++) {
+                for (String file : files) {
+                    Lexer lex = new Lexer(file);
+                    long startBytes = allocatedBytes();
+                    long start = System.nanoTime();
+                    count += tokens ? nextTokens(lex) : scanTokens(lex);
+                    nanos += System.nanoTime() - start;
+                    bytes += allocatedBytes() - startBytes;
+                }
+            }
+            if (report) {
+                System.out.println(String.format("%-10s %,12d tokens %,14.0f tokens/sec %8.2f bytes/token",
+                    tokens ? "nextToken" : "scanToken", count,
+                    count * 1e9 / nanos, (double)bytes / count));
+            }
+        }
+    }
+
+/**
+ *  scan the files in parallel the given number of times, first with a
+ *  SymbolTable for each file and then with one table shared by all files
+ *  @param files are the source files to scan
+ *  @param iterations is the number of times to scan the files
+ *  @param report if true then print the results
+*/
+    static void measureParallel(String[] files, int iterations, boolean report) throws Exception {
+        for (boolean shared : new boolean[] {false, true}) {
+            long count = 0, nanos = 0;
+            for (int i = 0; i < iterations; i++) {
+                SymbolTable table = new ConcurrentSymbolTable();
+                Lexer[] lexers = new Lexer[files.length];
+                for (int f = 0; f < files.length; f++) {
+                    lexers[f] = new Lexer(files[f], false, shared ? table : new SymbolTable());
+                }
+                long start = System.nanoTime();
+                count += Arrays.stream(lexers).parallel().mapToLong(LexerBenchmark::scanTokens).sum();
+                nanos += System.nanoTime() - start;
+            }
+            if (report) {
+                System.out.println(String.format("%-10s %,12d tokens %,14.0f tokens/sec (%d threads)",
+                    shared ? "shared" : "per file", count, count * 1e9 / nanos,
+                    java.util.concurrent.ForkJoinPool.getCommonPoolParallelism() + 1));
+            }
+        }
+    }
+
+/**
+ *  read and scan each file, first with one Lexer and then with ParallelLexer
+ *  @param files are the source files to scan
+ *  @param iterations is the number of times to scan the files
+ *  @param report if true then print the results
+*/
+    static void measureChunked(String[] files, int iterations, boolean report) throws Exception {
+        for (boolean chunked : new boolean[] {false, true}) {
+            long count = 0, nanos = 0;
+            for (int i = 0; i < iterations; i++) {
+                for (String file : files) {
+                    long start = System.nanoTime();
+                    TokenBuffer tokens = chunked ? ParallelLexer.lex(file) : new TokenBuffer(new Lexer(file));
+                    count += tokens.size();
+                    nanos += System.nanoTime() - start;
+                }
+            }
+            if (report) {
+                System.out.println(String.format("%-10s %,12d tokens %,14.0f tokens/sec",
+                    chunked ? "chunked" : "sequential", count, count * 1e9 / nanos));
+            }
+        }
+    }
+
+    static long nextTokens(Lexer lex) {
+        long count = 0;
+        while (lex.nextToken() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    static long scanTokens(Lexer lex) {
+        long count = 0;
+        while (lex.scanToken() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import lexer.*;
+
+/**
+ *  NextTokenBenchmark measures Lexer.nextToken() over the synthetic
+ *  programs written by Corpus, for each shape and size<br>
+ *  It is the plain Java fallback for NextTokenJmh in the Benchmarks
+ *  module, which JMH runs when the project is built with Maven. Like a
+ *  JMH run, each benchmark is warmed up and then measured over several
+ *  timed iterations; an iteration scans the file over and over for at
+ *  least <i>ITERATION_NANOS</i> (and at least once). Only the
+ *  scanning is timed, building the Lexer (and reading the file) is not.
+ *  For each benchmark the tokens/sec (mean and standard deviation over
+ *  the iterations) and the bytes allocated per token are reported<br>
+ *  The corpus files are written to the directory the first time they
+ *  are needed and reused after that; the 100M files need a heap of
+ *  about 1GB<br>
+ *  usage: java benchmark.NextTokenBenchmark [directory [size ...]]
+ *  where the sizes default to 1K 1M 100M
+*/
+public class NextTokenBenchmark {
+    static final int WARMUP_ITERATIONS = 3, ITERATIONS = 5;
+    static final long ITERATION_NANOS = 500000000L;
+    private static final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String args[]) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"), "xcorpus");
+        String[] sizes = {"1K", "1M", "100M"};
+        if (args.length > 1) {
+            sizes = new String[args.length - 1];
+            System.arraycopy(args, 1, sizes, 0, sizes.length);
+        }
+        dir.mkdirs();
+        System.out.println(String.format("%-10s %6s %12s %16s %12s %12s",
+            "shape", "size", "tokens/op", "tokens/sec", "+-", "B/token"));
+        for (String size : sizes) {
+            for (String shape : Corpus.SHAPES) {
+                File file = new File(dir, shape + "-" + size + ".x");
+                long bytes = Corpus.parseSize(size);
+                if (!file.isFile() || file.length() < bytes) {
+                    new Corpus(shape, 413).write(file, bytes);
+                }
+                run(shape, size, file.getPath());
+            }
+        }
+    }
+
+/**
+ *  warm up and measure one benchmark and print its results
+ *  @param shape is the shape of the corpus
+ *  @param size is the size of the corpus
+ *  @param file is the corpus file
+*/
+    static void run(String shape, String size, String file) throws Exception {
+        double[] rates = new double[ITERATIONS];
+        long tokens = 0, ops = 0, allocated = 0;
+        for (int i = -WARMUP_ITERATIONS; i < ITERATIONS; i++) {
+            long count = 0, nanos = 0, bytes = 0, n = 0;
+            while (nanos < ITERATION_NANOS || n == 0) {
+                Lexer lex = new Lexer(file);
+                long startBytes = allocatedBytes();
+                long start = System.nanoTime();
+                count += nextTokens(lex);
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - startBytes;
+                n++;
+            }
+            if (i >= 0) {
+                rates[i] = count * 1e9 / nanos;
+                tokens += count;
+                ops += n;
+                allocated += bytes;
+            }
+        }
+        double mean = 0, variance = 0;
+        for (double rate : rates) {
+            mean += rate / ITERATIONS;
+        }
+        for (double rate : rates) {
+            variance += (rate - mean) * (rate - mean) / (ITERATIONS - 1);
+        }
+        System.out.println(String.format("%-10s %6s %,12d %,16.0f %,12.0f %12.2f",
+            shape, size, tokens / ops, mean, Math.sqrt(variance), (double)allocated / tokens));
+    }
+
+    static long nextTokens(Lexer lex) {
+        long count = 0;
+        while (lex.nextToken() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
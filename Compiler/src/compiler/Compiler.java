@@ -5,10 +5,12 @@ import java.awt.Dimension;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.nio.file.Paths;
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import parser.ParseCache;
 import parser.Parser;
 //import constrain.Constrainer;
 //import codegen.*;
@@ -16,7 +18,10 @@ import visitor.*;
 
 /**
  *  The Compiler class contains the main program for compiling
- *  a source program to bytecodes
+ *  a source program to bytecodes<br>
+ *  If the system property compiler.cache names a directory then the ASTs
+ *  are kept there (see ParseCache), and a source file that has not changed
+ *  is not parsed again; the source is not echoed then
 */
 public class Compiler {
 
@@ -36,8 +41,14 @@ public class Compiler {
     void compileProgram() {
         try {
 //            System.out.println("---------------TOKENS-------------");
-            Parser parser = new Parser(sourceFile);
-            AST t = parser.execute();
+            AST t;
+            String cache = System.getProperty("compiler.cache");
+            if (cache != null) {
+                t = new ParseCache(Paths.get(cache)).parse(sourceFile).getRoot();
+            } else {
+                Parser parser = new Parser(sourceFile, true);
+                t = parser.execute();
+            }
             System.out.println("---------------AST-------------");
             PrintVisitor pv = new PrintVisitor();
             t.accept(pv);
@@ -0,0 +1,74 @@
+package lexer;
+
+import java.util.ArrayList;
+
+/**
+ *  A CompilationContext holds the state of one compilation: the
+ *  SymbolTable its Lexers enter symbols in, the number of the last AST
+ *  node its Parsers created and the syntax errors they found<br>
+ *  Nothing is shared between contexts, so compilations with contexts of
+ *  their own may run on any threads at once, and each numbers its nodes
+ *  from 1 as though it were the only one. A context is not thread safe;
+ *  the Lexers and Parsers of one compilation should run on one thread at
+ *  a time (except that the Lexers may share a ConcurrentSymbolTable)
+*/
+public class CompilationContext {
+    private final SymbolTable symbols;
+    private int nodeCount = 0;  // number of the last node created
+    private final ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+
+/**
+ *  Create a context with a SymbolTable of its own
+*/
+    public CompilationContext() {
+        this(new SymbolTable());
+    }
+
+/**
+ *  @param symbols is the table of the compilation, e.g. a
+ *  ConcurrentSymbolTable if it is to be scanned on several threads
+*/
+    public CompilationContext(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+/**
+ *  @return the number of the next node created
+*/
+    public int nextNodeNum() {
+        return ++nodeCount;
+    }
+
+/**
+ *  @return the number of the last node created
+*/
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+/**
+ *  @param count is the number of the last node created; the next node
+ *  is numbered count+1
+*/
+    public void setNodeCount(int count) {
+        nodeCount = count;
+    }
+
+/**
+ *  record a syntax error
+*/
+    public void report(Diagnostic diagnostic) {
+        diagnostics.add(diagnostic);
+    }
+
+/**
+ *  @return the syntax errors found, in the order they were found
+*/
+    public ArrayList<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+}
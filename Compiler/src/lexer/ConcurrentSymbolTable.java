@@ -0,0 +1,129 @@
+package lexer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  A SymbolTable that may be shared by several threads, e.g. by lexers
+ *  scanning the files of a program in parallel<br>
+ *  The table is split into segments by hash; finding a symbol that is
+ *  already there takes no lock, and entering a new one only locks its
+ *  segment, so threads seldom wait on each other
+*/
+public class ConcurrentSymbolTable extends SymbolTable {
+    private static final int SEGMENTS = 64;      // a power of 2
+    private static final int CHUNK_BITS = 10;    // symbols by id are kept in chunks of 1024
+    private static final int CHUNK = 1 << CHUNK_BITS;
+
+    private static class Segment {
+        volatile Symbol[] table = new Symbol[64];
+        int count = 0;
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicInteger nextId;
+    private volatile Symbol[][] chunks = new Symbol[16][];  // symbols entered here by id - firstId
+
+/**
+ *  Create a table for one compilation on top of the reserved words
+*/
+    public ConcurrentSymbolTable() {
+        this(TokenType.symbols);
+    }
+
+/**
+ *  @param parent is the table to search before this one; it must not have
+ *  any symbols added to it once this table is built
+*/
+    public ConcurrentSymbolTable(SymbolTable parent) {
+        super(parent);
+        nextId = new AtomicInteger(firstId());
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private static Segment segment(Segment[] segments, int h) {
+        return segments[(h >>> 26) & (SEGMENTS - 1)];  // high bits; index() uses the low ones
+    }
+
+    @Override
+    Symbol find(char[] chars, int start, int end, int h) {
+        Symbol sym = super.find(chars, start, end, h);  // parents only; our own table is empty
+        return (sym != null) ? sym : lookup(segment(segments, h).table, chars, start, end, h);
+    }
+
+    @Override
+    Symbol intern(char[] chars, int start, int end, int h, Tokens kind) {
+        Segment segment = segment(segments, h);
+        Symbol sym = lookup(segment.table, chars, start, end, h);
+        if (sym != null || kind == Tokens.BogusToken) {
+            return sym;
+        }
+        synchronized (segment) {  // look again; another thread may have just entered it
+            Symbol[] table = segment.table;
+            sym = lookup(table, chars, start, end, h);
+            if (sym != null) {
+                return sym;
+            }
+            sym = new Symbol(new String(chars, start, end - start), kind, h, nextId.getAndIncrement());
+            store(sym);
+            if (2 * (segment.count + 1) > table.length) {
+                table = rehash(table, 2 * table.length);
+                insert(table, sym);
+                segment.table = table;  // publish the new table
+            } else {
+                insert(table, sym);
+            }
+            segment.count++;
+        }
+        return sym;
+    }
+
+/**
+ *  remember the symbol by its id
+*/
+    private void store(Symbol sym) {
+        int n = sym.getId() - firstId();
+        Symbol[][] chunks = this.chunks;
+        if ((n >>> CHUNK_BITS) >= chunks.length || chunks[n >>> CHUNK_BITS] == null) {
+            chunks = addChunk(n >>> CHUNK_BITS);
+        }
+        chunks[n >>> CHUNK_BITS][n & (CHUNK - 1)] = sym;
+    }
+
+    private synchronized Symbol[][] addChunk(int chunk) {
+        Symbol[][] chunks = this.chunks;
+        if (chunk >= chunks.length) {
+            chunks = java.util.Arrays.copyOf(chunks, Math.max(2 * chunks.length, chunk + 1));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Symbol[CHUNK];
+        }
+        this.chunks = chunks;
+        return chunks;
+    }
+
+/**
+ *  @param id is the id of a symbol in this table or its parents; a symbol
+ *  entered by another thread is only found once that thread has handed
+ *  the id over (e.g. through a join)
+ *  @return the symbol, or null if there is no such id
+*/
+    @Override
+    public Symbol get(int id) {
+        if (id < firstId()) {
+            return super.get(id);
+        }
+        int n = id - firstId();
+        Symbol[][] chunks = this.chunks;
+        if ((n >>> CHUNK_BITS) >= chunks.length || chunks[n >>> CHUNK_BITS] == null) {
+            return null;
+        }
+        return chunks[n >>> CHUNK_BITS][n & (CHUNK - 1)];
+    }
+
+    @Override
+    public int size() {
+        return nextId.get();
+    }
+}
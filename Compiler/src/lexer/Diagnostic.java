@@ -0,0 +1,66 @@
+package lexer;
+
+/**
+ *  A Diagnostic describes a syntax error: the kind of token that was
+ *  expected and the token found in its place, with its line and columns;
+ *  it is printed as<br>
+ *  Expected: Then  Found: x  Left: 12  Right: 12  Line: 3
+*/
+public class Diagnostic {
+    private final Tokens kindExpected;
+    private final String found;  // the token found, or null at the end of the source
+    private final int left, right, line;
+
+/**
+ *  @param tokenFound is the token found by the parser, or null at the
+ *  end of the source
+ *  @param kindExpected is the kind of token expected in its place
+*/
+    public Diagnostic(Token tokenFound, Tokens kindExpected) {
+        this.kindExpected = kindExpected;
+        if (tokenFound == null) {
+            found = null;
+            left = right = line = -1;
+        } else {
+            found = tokenFound.toString();
+            left = tokenFound.getLeftPosition();
+            right = tokenFound.getRightPosition();
+            line = tokenFound.getLineNo();
+        }
+    }
+
+    public Tokens getKindExpected() {
+        return kindExpected;
+    }
+
+/**
+ *  @return the token found, or null if the source ended
+*/
+    public String getFound() {
+        return found;
+    }
+
+    public int getLeftPosition() {
+        return left;
+    }
+
+    public int getRightPosition() {
+        return right;
+    }
+
+    public int getLineNo() {
+        return line;
+    }
+
+    public String toString() {
+        if (found == null) {
+            return "Expected: " + kindExpected + "  Found: end of file";
+        }
+        return "Expected: " + kindExpected + "  Found: " + found +
+            "  Left: " + left + "  Right: " + right + "  Line: " + line;
+    }
+
+    public void print() {
+        System.out.println(this);
+    }
+}
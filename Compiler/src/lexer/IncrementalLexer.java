@@ -0,0 +1,358 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ *  IncrementalLexer keeps the tokens of a program that is being edited;
+ *  after an edit only the lines it touched are scanned again and their
+ *  tokens spliced into the TokenBuffer, which the Parser can read as usual<br>
+ *  The start of each line is kept in an index. A Lexer that begins a line
+ *  is in the same state as one that has scanned the whole source up to
+ *  it, unless the previous line ends with a quote (a char literal may take
+ *  in the end of the line) or the scan had already stopped at an error.
+ *  So after scanning the edited lines we are back in step with the old
+ *  tokens at the first following line where that holds for both the old
+ *  and the new text. From there on the old tokens are kept and only
+ *  moved. A scan that stops at an error drops the tokens after it, as
+ *  the Lexer does<br>
+ *  Looking up operators while recovering from bad input may find ids
+ *  and numbers seen earlier (see Lexer.usedHistory()); the last line
+ *  where that happened is kept and an edit before it scans the rest of
+ *  the source again, against the symbols of the tokens before the edit<br>
+ *  The text and the arrays are moved with System.arraycopy on each edit;
+ *  only the scanning depends on the size of the edit
+*/
+public class IncrementalLexer {
+    private char[] text;
+    private int length;         // number of chars in text
+    private int[] lineStarts;   // offset where each line begins, then length
+    private int lines;          // number of lines
+    private final SymbolTable symbols;
+    private TokenBuffer tokens;
+    private int stopLine = -1;    // line (from 0) where the scan stopped at an error, or -1
+    private int historyLine = -1; // last line where a lookup used history, or -1
+    private String error;         // the error the scan stopped at, or null
+    private int changeStart, changeEnd, changeOldEnd;  // tokens replaced by the last edit
+
+    private static class Run {  // the result of scanning some lines
+        TokenBuffer tokens;
+        boolean stopped, usedHistory;
+        int stopLine, historyLine;
+        String error;
+    }
+
+/**
+ *  @param program is the source program
+*/
+    public IncrementalLexer(CharSequence program) {
+        this(program, new SymbolTable());
+    }
+
+/**
+ *  @param program is the source program
+ *  @param symbols is the table to enter the symbols in
+*/
+    public IncrementalLexer(CharSequence program, SymbolTable symbols) {
+        this.symbols = symbols;
+        length = program.length();
+        text = new char[Math.max(16, length)];
+        program.toString().getChars(0, length, text, 0);
+        lineStarts = new int[16];
+        lines = 0;
+        int[] starts = lineStartsIn(0, length);
+        setLines(0, 0, starts);
+        tokens = new TokenBuffer(symbols);
+        relexToEnd(0, 0);
+        changeStart = changeOldEnd = 0;
+        changeEnd = tokens.size();
+    }
+
+/**
+ *  Replace part of the source and scan it again
+ *  @param offset is the offset of the first char replaced
+ *  @param removed is the number of chars replaced
+ *  @param inserted holds the new chars
+*/
+    public void edit(int offset, int removed, CharSequence inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > length) {
+            throw new IndexOutOfBoundsException("edit " + offset + "+" + removed + " of " + length);
+        }
+        int n = inserted.length(), delta = n - removed;
+
+        // the old lines from la to lbOld-1 may change
+        int la = (offset == 0) ? 0 : lineOf(offset - 1);
+        int lbOld = firstLineAfter(offset + removed, la);
+        boolean oldQuote = lbOld < lines && endsWithQuote(lbOld - 1);
+
+        if (length + delta > text.length) {
+            text = Arrays.copyOf(text, Math.max(2 * text.length, length + delta));
+        }
+        System.arraycopy(text, offset + removed, text, offset + n, length - offset - removed);
+        inserted.toString().getChars(0, n, text, offset);
+        length += delta;
+
+        int scanTo = (lbOld < lines) ? lineStarts[lbOld] + delta : length;
+        int[] starts = lineStartsIn(lineStarts[la], scanTo);
+        int lbNew = la + starts.length, lineDelta = lbNew - lbOld;
+        int oldStop = stopLine;
+        setLines(la, lbOld, starts);
+        for (int i = lbNew; i <= lines; i++) {
+            lineStarts[i] += delta;
+        }
+        lineStarts[lines] = length;
+
+        while (la > 0 && endsWithQuote(la - 1)) {
+            la--;
+        }
+        int ta = firstToken(la);
+        if (oldStop >= 0 && la > oldStop) {  // the scan stops before the edit either way
+            changeStart = changeEnd = changeOldEnd = ta;
+            return;
+        }
+        if (historyLine >= la) {
+            relexToEnd(la, ta);
+            return;
+        }
+
+        int b = Math.min(lines, Math.max(lbNew, la + 1) + (oldQuote ? 1 : 0));
+        while (b < lines && endsWithQuote(b - 1)) {
+            b++;
+        }
+        Run run = scan(la, b, symbols);
+        TokenBuffer scanned = run.tokens;
+        int ob = b - lineDelta;  // line b in the old text
+        if (!run.stopped && !run.usedHistory && b < lines && oldStop >= 0 && ob > oldStop) {
+            Run rest = scan(b, lines, symbols);  // the old scan had stopped; go on to the end
+            scanned.append(rest.tokens, 0);
+            run.stopped = rest.stopped;
+            run.stopLine = rest.stopLine;
+            run.usedHistory = rest.usedHistory;
+            run.historyLine = rest.historyLine;
+            run.error = rest.error;
+            b = lines;
+        }
+        if (run.usedHistory) {
+            relexToEnd(la, ta);
+            return;
+        }
+        int tb = (run.stopped || b == lines) ? tokens.size() : firstToken(ob);
+        tokens.splice(ta, tb, scanned, delta, lineDelta);
+        changeStart = ta;
+        changeOldEnd = tb;
+        changeEnd = ta + scanned.size();
+        if (run.stopped) {
+            stopLine = run.stopLine;
+            error = run.error;
+        } else if (b == lines) {
+            stopLine = -1;
+            error = null;
+        } else if (oldStop >= 0) {
+            stopLine = oldStop + lineDelta;
+        }
+    }
+
+/**
+ *  scan again from line la to the end with the symbols of the tokens
+ *  before it, so lookups that use history find what a Lexer scanning
+ *  the whole source would
+ *  @param la is the first line to scan
+ *  @param ta is the index of its first token
+*/
+    private void relexToEnd(int la, int ta) {
+        SymbolTable history = new SymbolTable();
+        for (int i = 0; i < ta; i++) {
+            history.symbol(tokens.symbol(i).toString(), tokens.symbol(i).getKind());
+        }
+        Run run = scan(la, lines, history);
+        TokenBuffer scanned = run.tokens.copyTo(symbols);
+        changeStart = ta;
+        changeOldEnd = tokens.size();
+        tokens.splice(ta, tokens.size(), scanned, 0, 0);
+        changeEnd = tokens.size();
+        stopLine = run.stopped ? run.stopLine : -1;
+        error = run.error;
+        if (run.usedHistory) {
+            historyLine = run.historyLine;
+        } else if (historyLine >= la) {
+            historyLine = -1;
+        }
+    }
+
+/**
+ *  scan lines a to b-1 with a Lexer of their own
+*/
+    private Run scan(int a, int b, SymbolTable table) {
+        Run run = new Run();
+        Lexer lex = new Lexer(new SourceReader(text, lineStarts[a], lineStarts[b]), table, false);
+        run.tokens = new TokenBuffer(table);
+        run.historyLine = -1;
+        Tokens kind;
+        int lookups = 0;
+        while ((kind = lex.scanToken()) != null) {
+            run.tokens.add(kind, lex.getSymbol(), lex.getStartOffset(), lex.getEndOffset(),
+                lex.getLineNo() + a, lex.getLeftPosition());
+            if (lex.historyLookups() > lookups) {
+                lookups = lex.historyLookups();
+                run.historyLine = lineOf(lex.getEndOffset() - 1);
+            }
+        }
+        run.stopped = !lex.isAtEnd();
+        run.stopLine = run.stopped ? lineOf(lex.getStartOffset()) : -1;
+        if (lex.historyLookups() > lookups) {
+            run.historyLine = run.stopped ? run.stopLine : lines - 1;
+        }
+        run.usedHistory = lex.usedHistory();
+        run.error = lex.getError();
+        return run;
+    }
+
+/**
+ *  @return the offsets where the lines from start up to end begin (start
+ *  itself if it begins a line)
+*/
+    private int[] lineStartsIn(int start, int end) {
+        int[] starts = new int[16];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            if (i == start || text[i - 1] == '\n' || text[i - 1] == '\r' && text[i] != '\n') {
+                if (n == starts.length) {
+                    starts = Arrays.copyOf(starts, 2 * n);
+                }
+                starts[n++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, n);
+    }
+
+/**
+ *  replace the starts of lines from to to-1 with the given ones
+*/
+    private void setLines(int from, int to, int[] starts) {
+        int size = lines - to + from + starts.length;
+        if (size + 1 > lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, Math.max(2 * lineStarts.length, size + 1));
+        }
+        System.arraycopy(lineStarts, to, lineStarts, from + starts.length, lines + 1 - to);
+        System.arraycopy(starts, 0, lineStarts, from, starts.length);
+        lines = size;
+        lineStarts[lines] = length;
+    }
+
+/**
+ *  @return the first line after line la that begins after the given offset
+*/
+    private int firstLineAfter(int offset, int la) {
+        int lo = la + 1, hi = lines;  // lineStarts[hi] is past any offset
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lineStarts[mid] > offset) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return Math.min(lo, lines);
+    }
+
+/**
+ *  @return true if the line ends with a quote
+*/
+    private boolean endsWithQuote(int line) {
+        int end = lineStarts[line + 1];
+        while (end > lineStarts[line] && (text[end - 1] == '\n' || text[end - 1] == '\r')) {
+            end--;
+        }
+        return end > lineStarts[line] && text[end - 1] == '\'';
+    }
+
+/**
+ *  @return the index of the first token on or after the line (from 0)
+*/
+    private int firstToken(int line) {
+        int lo = 0, hi = tokens.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens.line(mid) > line) {  // token lines count from 1
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+/**
+ *  @param offset is an offset in the source
+ *  @return the line (from 0) holding the offset
+*/
+    public int lineOf(int offset) {
+        int lo = 0, hi = lines - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return Math.max(lo, 0);
+    }
+
+/**
+ *  @param line is a line number (from 0)
+ *  @return the offset where the line begins
+*/
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+/**
+ *  @return the number of lines
+*/
+    public int getLineCount() {
+        return lines;
+    }
+
+/**
+ *  @return the tokens of the source; the same buffer is kept up to date
+*/
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+/**
+ *  @return the source program
+*/
+    public String getText() {
+        return new String(text, 0, length);
+    }
+
+/**
+ *  @return the error the scan stopped at, or null
+*/
+    public String getError() {
+        return error;
+    }
+
+/**
+ *  @return the index of the first token replaced by the last edit
+*/
+    public int getChangeStart() {
+        return changeStart;
+    }
+
+/**
+ *  @return the index just past the tokens the last edit replaced, in the
+ *  old tokens
+*/
+    public int getChangeOldEnd() {
+        return changeOldEnd;
+    }
+
+/**
+ *  @return the index just past the new tokens of the last edit
+*/
+    public int getChangeEnd() {
+        return changeEnd;
+    }
+}
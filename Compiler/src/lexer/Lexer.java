@@ -1,6 +1,8 @@
 package lexer;
 
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * @author Ulises Martinez
@@ -24,51 +26,156 @@ public class Lexer {
     
     // positions in line of current token
     private int startPosition, endPosition; 
+    private int startOffset;  // offset in the source of current token
+    private int lineNo;       // line number of current token
+    private Symbol symbol;    // symbol of current token
+    private char[] scratch = new char[3];  // chars of operators and char literals
+    private SymbolTable symbols;  // symbols of this compilation
+    private boolean atEnd = false;  // if true then the whole source was scanned
+    private boolean printErrors;  // if false then the errors are only kept for getError()
+    private String error;         // first error found
+    private int historyLookups = 0;  // see usedHistory()
+
+    // operator accepted in each DFA state
+    private static final Symbol[] acceptSymbols = new Symbol[TokenDFA.ACCEPT.length];
+    // reserved word in each slot of TokenDFA.KEYWORDS
+    private static final Symbol[] keywordSymbols = new Symbol[TokenDFA.KEYWORDS.length];
+    static {
+        for (int state = 0; state < acceptSymbols.length; state++) {
+            if (TokenDFA.TEXT[state] != null) {
+                acceptSymbols[state] = TokenType.symbols.symbol(TokenDFA.TEXT[state], TokenDFA.ACCEPT[state]);
+            }
+        }
+        for (int h = 0; h < keywordSymbols.length; h++) {
+            if (TokenDFA.KEYWORDS[h] != null) {
+                char[] word = TokenDFA.KEYWORDS[h];
+                keywordSymbols[h] = TokenType.symbols.symbol(word, 0, word.length, Tokens.BogusToken);
+            }
+        }
+    }
 
     /** Constructor for Lexer where it initializes the token table
      * @param sourceFile the file to be read by sourcereader
      * @throws Exception if the file is not found
      */
     public Lexer(String sourceFile) throws Exception {
-        new TokenType();  // init token table
-        source = new SourceReader(sourceFile);
+        this(sourceFile, false);
+    }
+
+    /** Constructor for Lexer where it initializes the token table
+     * @param sourceFile the file to be read by sourcereader
+     * @param echo if true then the source lines are printed as they are read
+     * @throws Exception if the file is not found
+     */
+    public Lexer(String sourceFile, boolean echo) throws Exception {
+        this(sourceFile, echo, new SymbolTable());
+    }
+
+    /** Constructor for Lexer that enters its symbols in the given table
+     * @param sourceFile the file to be read by sourcereader
+     * @param echo if true then the source lines are printed as they are read
+     * @param symbols the table of the compilation; it may be shared with
+     * other lexers on the same thread, or with any lexer if it is a
+     * ConcurrentSymbolTable
+     * @throws Exception if the file is not found
+     */
+    public Lexer(String sourceFile, boolean echo, SymbolTable symbols) throws Exception {
+        this(new SourceReader(sourceFile, echo), symbols, true);
+    }
+
+    /** Constructor for Lexer over any SourceReader, e.g. one holding
+     * a program in memory (see SourceReader.fromText)
+     * @param source the source to scan
+     */
+    public Lexer(SourceReader source) {
+        this(source, new SymbolTable());
+    }
+
+    /** Constructor for Lexer over any SourceReader that enters its
+     * symbols in the given table
+     * @param source the source to scan
+     * @param symbols the table of the compilation
+     */
+    public Lexer(SourceReader source, SymbolTable symbols) {
+        this(source, symbols, true);
+    }
+
+    /** Constructor for Lexer over any SourceReader for one compilation
+     * @param source the source to scan
+     * @param context the compilation; the symbols are entered in its table
+     */
+    public Lexer(SourceReader source, CompilationContext context) {
+        this(source, context.getSymbolTable(), true);
+    }
+
+    /** Constructor for Lexer that streams the source from a Reader
+     * @param in the Reader holding the source program
+     */
+    public Lexer(Reader in) {
+        this(new SourceReader(in, false));
+    }
+
+    /** Constructor for Lexer that streams the source from an InputStream
+     * @param in the stream holding the source program
+     */
+    public Lexer(InputStream in) {
+        this(new SourceReader(in, false));
+    }
+
+    /** Constructor for Lexer that streams the source from a channel
+     * @param in the channel holding the source program
+     */
+    public Lexer(ReadableByteChannel in) {
+        this(new SourceReader(in, false));
+    }
+
+    /** Constructor for Lexer over a SourceReader (e.g. one chunk of a file)
+     * @param source the source to scan
+     * @param symbols the table of the compilation
+     * @param printErrors if false then the first error is kept for
+     * getError() rather than printed
+     */
+    Lexer(SourceReader source, SymbolTable symbols, boolean printErrors) {
+        this.symbols = symbols;
+        this.source = source;
+        this.printErrors = printErrors;
         ch = source.read();
     }
 
 
     public static void main(String args[]) {
-    	LinkedList<Token> program = new LinkedList<Token>();
-        Token tok;
+        TokenBuffer program;
         try {
-        	Lexer lex = new Lexer(args[0]);
-            while (true) {
-                tok = lex.nextToken();
-                String tokenType = TokenType.tokens.get(tok.getKind()) + " ";
-                String pos = "Left: " + tok.getLeftPosition() +
-                   "  Right: " + tok.getRightPosition() + "  Line: " + tok.getLineNo();
-                if ((tok.getKind() == Tokens.Identifier) ||
-                    (tok.getKind() == Tokens.INTeger) ||
-                    (tok.getKind() == Tokens.FLOat) ||
-                    (tok.getKind() == Tokens.CHar) ||
-                    (tok.getKind() == Tokens.ScientificN))
-                    tokenType += tok.toString();
-                System.out.println(String.format("%-25s %s", tokenType, pos));
-                program.add(tok);
-            }
-            
-        } catch (Exception e) {}
+            program = new TokenBuffer(new Lexer(args[0], true));
+        } catch (Exception e) {
+            System.out.println(e);
+            return;
+        }
+        int i;
+        for (i = 0; program.has(i); i++) {
+            Tokens kind = program.kind(i);
+            String tokenType = TokenType.tokens.get(kind) + " ";
+            String pos = "Left: " + program.column(i) +
+               "  Right: " + (program.column(i) + program.end(i) - program.start(i) - 1) +
+               "  Line: " + program.line(i);
+            if ((kind == Tokens.Identifier) ||
+                (kind == Tokens.INTeger) ||
+                (kind == Tokens.FLOat) ||
+                (kind == Tokens.CHar) ||
+                (kind == Tokens.ScientificN))
+                tokenType += program.symbol(i).toString();
+            System.out.println(String.format("%-25s %s", tokenType, pos));
+        }
         
-        // print out tokens from linkedlist
-        tok = program.remove();
-        int lineNo = 1;
-        while (!program.isEmpty()) {
+        // print out tokens from the buffer, a line at a time
+        int count = i, lineNo = 1;
+        i = 0;
+        while (i + 1 < count) {
         	System.out.print("\n" + lineNo + ":  ");
-        	try {
-        		while (tok.getLineNo() == lineNo) {
-        			System.out.print(tok + " ");
-        			tok = program.remove();
-        		} 
-        	} catch (Exception e) {}
+        	while (i < count && program.line(i) == lineNo) {
+        		System.out.print(program.symbol(i) + " ");
+        		i++;
+        	}
         	lineNo++;
         }  
     }
@@ -84,8 +191,22 @@ public class Lexer {
  *  @return the Token; either an id or one for the reserved words
 */
     public Token newIdToken(String id,int startPosition,int endPosition, int lineNo) {
+        char[] chars = id.toCharArray();
         return new Token(startPosition,endPosition,
-        		Symbol.symbol(id,Tokens.Identifier), lineNo);
+        		idSymbol(chars, 0, chars.length), lineNo);
+    }
+
+/**
+ *  reserved words are recognized by a perfect hash; only true ids are
+ *  looked up (and entered) in the symbol table
+ *  @param chars holds the characters of the id or reserved word
+ *  @param start is the index of the first character
+ *  @param end is the index just past the last character
+ *  @return the Symbol of the reserved word or id
+*/
+    public Symbol idSymbol(char[] chars, int start, int end) {
+        int h = TokenDFA.keyword(chars, start, end);
+        return (h >= 0) ? keywordSymbols[h] : symbols.enter(chars, start, end, Tokens.Identifier);
     }
 
 /**
@@ -102,7 +223,7 @@ public class Lexer {
 */
     public Token newNumberToken(String number,int startPosition,int endPosition, int lineNo) {
         return new Token(startPosition,endPosition,
-            Symbol.symbol(number,Tokens.INTeger), lineNo);
+            symbols.symbol(number,Tokens.INTeger), lineNo);
     }
     
     
@@ -117,7 +238,7 @@ public class Lexer {
      */
     public Token newFloatToken(String number,int startPosition,int endPosition, int lineNo) {
         return new Token(startPosition,endPosition,
-            Symbol.symbol(number,Tokens.FLOat), lineNo);
+            symbols.symbol(number,Tokens.FLOat), lineNo);
     }
     
     
@@ -131,7 +252,7 @@ public class Lexer {
      */
     public Token newCharToken(String number,int startPosition,int endPosition, int lineNo) {
         return new Token(startPosition,endPosition,
-            Symbol.symbol(number,Tokens.CHar), lineNo);
+            symbols.symbol(number,Tokens.CHar), lineNo);
     }
     
     
@@ -146,7 +267,7 @@ public class Lexer {
      */
     public Token newScientificNToken(String number,int startPosition,int endPosition, int lineNo) {
         return new Token(startPosition,endPosition,
-            Symbol.symbol(number,Tokens.ScientificN), lineNo);
+            symbols.symbol(number,Tokens.ScientificN), lineNo);
     }
 
 /**
@@ -160,193 +281,300 @@ public class Lexer {
 */
     public Token makeToken(String s,int startPosition,int endPosition, int lineNo) {
         if (s.equals("//")) {  // filter comment
-            try {
-               int oldLine = source.getLineno();
-               do {
-                   ch = source.read();
-               } while (oldLine == source.getLineno());
-            } catch (Exception e) {
-                    atEOF = true;
-            }
+            skipComment();
             return nextToken();
         }
-        Symbol sym = Symbol.symbol(s,Tokens.BogusToken); // be sure it's a valid token
+        Symbol sym = symbols.symbol(s,Tokens.BogusToken); // be sure it's a valid token
         if (sym == null) {
-             System.out.println("******** illegal character: " + s);
+             error("******** illegal character: " + s);
              atEOF = true;
              return nextToken();
         }
         return new Token(startPosition,endPosition,sym, lineNo);
         }
 
+/**
+ *  skip the rest of the line after a comment
+*/
+    private void skipComment() {
+        int oldLine = source.getLineno();
+        do {
+            ch = source.read();
+        } while (oldLine == source.getLineno());
+    }
+
 /**
  *  @return the next Token found in the source file
 */
-    public Token nextToken() { // ch is always the next char to process
+    public Token nextToken() {
+        if (scanToken() == null) {
+            return null;
+        }
+        return new Token(startPosition, endPosition, symbol, lineNo);
+    }
+
+/**
+ *  Scan the next token without building a Token object; the token just
+ *  scanned is described by getSymbol(), getLeftPosition(), getRightPosition(),
+ *  getLineNo(), getStartOffset() and getEndOffset()<br>
+ *  Token text is never copied out of the source buffer; the Symbol is
+ *  looked up directly from the characters so no garbage is created once
+ *  every symbol has been seen
+ *  @return the kind of the token just scanned, or null at end of file
+*/
+    public Tokens scanToken() { // ch is always the next char to process
         if (atEOF) {
             if (source != null) {
                 source.close();
                 source = null;
             }
+            symbol = null;
             return null;
         }
-        try {
-            while (Character.isWhitespace(ch)) {  // scan past whitespace
-                ch = source.read();
-            }
-        } catch (Exception e) {
+        while (TokenDFA.classOf(ch) == TokenDFA.SPACE) {  // scan past whitespace
+            ch = source.read();
+        }
+        if (ch == SourceReader.EOF && source.isEOF()) {
             atEOF = true;
-            return nextToken();
+            atEnd = true;
+            return scanToken();
         }
         startPosition = source.getPosition();
         endPosition = startPosition - 1; 
+        startOffset = source.getOffset();
 
-        if (Character.isJavaIdentifierStart(ch)) {
-            // return tokens for ids and reserved words
-            String id = "";
-            try {
-                do {
-                    endPosition++;
-                    id += ch;
-                    ch = source.read();
-                } while (Character.isJavaIdentifierPart(ch));
-            } catch (Exception e) {
-				atEOF = true;
-			}
-			return newIdToken(id, startPosition, endPosition, source.getLineno());
-		}
+        // run the DFA as far as it goes; ids, numbers and operators
+        // are recognized here
+        int state = TokenDFA.START, next;
+        while ((next = TokenDFA.NEXT[state * TokenDFA.CLASSES + TokenDFA.classOf(ch)]) > TokenDFA.START) {
+            state = next;
+            endPosition++;
+            ch = source.read();
+        }
+        if (state == TokenDFA.START || next == TokenDFA.REJECT) {
+            return scanRest(false);
+        }
+        Tokens kind = TokenDFA.ACCEPT[state];
+        if (kind == null) {  // exponent without digits (eg 1.2e)
+            atEOF = true;
+            return scanRest(true);
+        }
+        if (acceptSymbols[state] == null) {  // id, reserved word or number
+            int start = startOffset - source.getBase(),  // index in the buffer
+                end = start + endPosition - startPosition + 1;
+            if (kind == Tokens.Identifier) {
+                return setSymbol(idSymbol(source.getBuffer(), start, end));
+            }
+            return setSymbol(symbols.enter(source.getBuffer(), start, end, kind));
+        }
+        if (kind == Tokens.Comment) {  // filter comment
+            skipComment();
+            return scanToken();
+        }
+        return setSymbol(acceptSymbols[state]);
+    }
 
-		if (Character.isDigit(ch)) {
-			String number = "";
-			try {
-				do {
-					endPosition++;
-					number += ch;
-					ch = source.read();
-				} while (Character.isDigit(ch));
-			} catch (Exception e) {
-				atEOF = true;
-			}
-			
-			if (ch == '.') {  // digits followed by decimal (eg 12.4) -> float
-				endPosition++;
-				number += ch;
-				try {
-					ch = source.read();
-				} catch (Exception e) {
-					atEOF = true;
-				}
-				
-				if (Character.isDigit(ch)) {
-					try {
-						do {
-							endPosition++;
-							number += ch;
-							ch = source.read();
-						} while (Character.isDigit(ch));
-					} catch (Exception e) {
-						atEOF = true;
-					}
-					
-					if (ch == 'e' || ch == 'E') { // scientific notation
-						endPosition++;
-						number += ch;
-						try {
-							ch = source.read();
-							if (ch == '+' || ch == '-') {
-								endPosition++;
-								number += ch;
-								ch = source.read();
-							}
-							if (Character.isDigit(ch)) {
-								do {
-									endPosition++;
-									number += ch;
-									ch = source.read();
-								} while (Character.isDigit(ch));
-							} else {
-								throw new Exception();
-							}
-							return newScientificNToken(number, startPosition, endPosition, source.getLineno());
-							
-						} catch (Exception e) {
-							atEOF = true;
-						}
-						
-					} else {
-						return newFloatToken(number, startPosition, endPosition, source.getLineno());
-					}
-				} else {
-					return newFloatToken(number, startPosition, endPosition, source.getLineno());
-				}
-				
-			} else {
-				return newNumberToken(number, startPosition, endPosition, source.getLineno());
-			}			
-		}
-		
-		if (ch == '.') {    // starts with a decimal ( eg .13 )
-			String number = "";
+/**
+ *  finish a token the DFA could not handle: chars, illegal characters and
+ *  whatever follows a malformed number
+ *  @param afterNumber is true if a malformed number was just scanned
+ *  @return the kind of the token just scanned, or null at end of file
+*/
+    private Tokens scanRest(boolean afterNumber) {
+		if (afterNumber && ch == '.') {    // decimal right after the number ( eg 1.2e.13 )
+			int numberStart = source.getOffset() - source.getBase(), numberEnd = numberStart;
 			do {
-				try {
-					endPosition++;
-					number += ch;
-					ch = source.read();
-				} catch (Exception e) {
-					atEOF = true;
-				}
+				endPosition++;
+				numberEnd++;
+				ch = source.read();
 			} while (Character.isDigit(ch));
 			if (ch != '.')
-				return newFloatToken(number, startPosition, endPosition, source.getLineno());
+				return setSymbol(symbols.symbol(source.getBuffer(), numberStart, numberEnd, Tokens.FLOat));
 		}
         
+        // below, ch is left alone when end of file is read so the
+        // characters already scanned still make up the token
+        char next;
         if (ch == '\'') {		// starts with a single quote (char)
-        	String character = "";
-        	character += '\'';
+        	scratch[0] = '\'';
         	endPosition++;
-        	try {
-        		character += source.read();
+        	scratch[1] = source.read();
+        	if (source.isEOF()) {
+        		atEOF = true;
+        	} else {
         		endPosition++;
-        		ch = source.read();	// get char
-        		if (ch != '\'') {	// does not end in single quote after char
+        		next = source.read();	// get char
+        		if (source.isEOF()) {
+        			atEOF = true;
+        		} else if ((ch = next) != '\'') {	// does not end in single quote after char
         			atEOF = true;	
         		} else {
         			endPosition++;
-        			character += '\'';
+        			scratch[2] = '\'';
         			ch = source.read();
-            		return newCharToken(character, startPosition, endPosition, source.getLineno());
-
+        			return setSymbol(symbols.symbol(scratch, 0, 3, Tokens.CHar));
         		}
-        	} catch (Exception e) {
-        		atEOF = true;
         	}
         }
         
         // At this point the only tokens to check for are one or two
         // characters; we must also check for comments that begin with
         // 2 slashes
-        String charOld = "" + ch;
-        String op = charOld;
-        Symbol sym;
-        try {
-            endPosition++;
-            ch = source.read();
-            op += ch;
+        scratch[0] = ch;
+        int opLength = 1;
+        endPosition++;
+        next = source.read();
+        if (!source.isEOF()) {
+            ch = next;
+            scratch[1] = ch;
+            opLength = 2;
             // check if valid 2 char operator; if it's not in the symbol
             // table then don't insert it since we really have a one char
             // token
-            sym = Symbol.symbol(op, Tokens.BogusToken); 
-            if (sym == null) {  // it must be a one char token
-                return makeToken(charOld,startPosition,endPosition, source.getLineno());
+            if (operator(2) == null) {  // it must be a one char token
+                return makeSymbol(1);
             }
             endPosition++;
-            ch = source.read();
-            return makeToken(op,startPosition,endPosition, source.getLineno());
-        } catch (Exception e) {}
+            next = source.read();
+            if (!source.isEOF()) {
+                ch = next;
+                return makeSymbol(2);
+            }
+        }
         atEOF = true;
         if (startPosition == endPosition) {
-            op = charOld;
+            opLength = 1;
         }
-        return makeToken(op,startPosition,endPosition, source.getLineno());
+        return makeSymbol(opLength);
+    }
+
+/**
+ *  record the symbol for the operator or separator held in scratch;
+ *  filter out comments which begin with two slashes
+ *  @param length is the number of characters in the operator
+ *  @return the kind of the symbol
+*/
+    private Tokens makeSymbol(int length) {
+        Symbol sym = operator(length); // be sure it's a valid token
+        if (sym == null) {
+             error("******** illegal character: " + String.valueOf(scratch, 0, length));
+             atEOF = true;
+             return scanToken();
+        }
+        if (sym.getKind() == Tokens.Comment) {  // filter comment
+            skipComment();
+            return scanToken();
+        }
+        return setSymbol(sym);
+    }
+
+/**
+ *  look up the chars in scratch without entering them; they may also
+ *  match an id or number seen earlier in the source
+ *  @param length is the number of characters to look up
+ *  @return the symbol, or null if there is none
+*/
+    private Symbol operator(int length) {
+        Symbol sym = symbols.symbol(scratch, 0, length, Tokens.BogusToken);
+        if (sym == null || sym.getId() >= TokenType.symbols.size()) {
+            historyLookups++;
+        }
+        return sym;
+    }
+
+    private void error(String message) {
+        if (printErrors) {
+            System.out.println(message);
+        }
+        if (error == null) {
+            error = message;
+        }
+    }
+
+/**
+ *  @return true if scanning stopped at the end of the source rather
+ *  than at an error
+*/
+    boolean isAtEnd() {
+        return atEnd;
+    }
+
+/**
+ *  @return true if a lookup outside the reserved words and operators was
+ *  made (only when recovering from bad input), so the tokens may depend
+ *  on the ids and numbers scanned before this source
+*/
+    boolean usedHistory() {
+        return historyLookups > 0;
+    }
+
+/**
+ *  @return the number of such lookups made so far
+*/
+    int historyLookups() {
+        return historyLookups;
+    }
+
+/**
+ *  @return the first error found so far, or null
+*/
+    public String getError() {
+        return error;
+    }
+
+    private Tokens setSymbol(Symbol sym) {
+        symbol = sym;
+        lineNo = source.getLineno();
+        return sym.getKind();
+    }
+
+/**
+ *  @return the Symbol of the token just scanned
+*/
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+/**
+ *  @return the table the symbols of this lexer are entered in
+*/
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+/**
+ *  @return the column in the source file where the token just scanned begins
+*/
+    public int getLeftPosition() {
+        return startPosition;
+    }
+
+/**
+ *  @return the column in the source file where the token just scanned ends
+*/
+    public int getRightPosition() {
+        return endPosition;
+    }
+
+/**
+ *  @return the line number in the source file of the token just scanned
+*/
+    public int getLineNo() {
+        return lineNo;
+    }
+
+/**
+ *  @return the offset in the source of the first character of the token
+ *  just scanned
+*/
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+/**
+ *  @return the offset in the source just past the token just scanned
+*/
+    public int getEndOffset() {
+        return startOffset + endPosition - startPosition + 1;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  ParallelLexer scans a large source file on several threads<br>
+ *  The source buffer is split into chunks at line boundaries (comments
+ *  end with their line and tokens do not span lines), each chunk is
+ *  scanned by its own Lexer on a ForkJoinPool worker into its own
+ *  TokenBuffer, and the segments are then stitched together in order
+ *  with their line numbers corrected. The tokens are the same as those
+ *  of a Lexer scanning the whole file: scanning stops at the first
+ *  error, whose message is printed when the segments are stitched, and a
+ *  chunk whose tokens may depend on the symbols seen before it (see
+ *  Lexer.usedHistory()) is scanned again once they are known<br>
+ *  A line ending with a quote is never used as a split point since a
+ *  char literal may take in the end of the line
+*/
+public class ParallelLexer {
+    static final int MIN_CHUNK = 1 << 16;  // smallest chunk worth a task, in chars
+
+    private static class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final char[] buffer;
+        private final int start, end;
+        private final SymbolTable symbols;
+        TokenBuffer segment;
+        int lines;           // number of lines in the chunk
+        boolean stopped;     // if true then scanning stopped before the end of the chunk
+        boolean usedHistory; // if true then the chunk must be scanned again in order
+        String error;        // first error found, or null
+
+        Chunk(char[] buffer, int start, int end, SymbolTable symbols) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.symbols = symbols;
+        }
+
+        protected void compute() {
+            scan(symbols);
+            for (int i = start; i < end; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r' && (i + 1 == end || buffer[i + 1] != '\n')) {
+                    lines++;
+                }
+            }
+        }
+
+        void scan(SymbolTable symbols) {
+            Lexer lex = new Lexer(new SourceReader(buffer, start, end), symbols, false);
+            segment = new TokenBuffer(lex);
+            segment.size();
+            stopped = !lex.isAtEnd();
+            usedHistory = lex.usedHistory();
+            error = lex.getError();
+        }
+    }
+
+/**
+ *  Scan a source file on the common ForkJoinPool
+ *  @param sourceFile is the source file to scan
+ *  @return the tokens of the file
+ *  @throws Exception if the file cannot be read
+*/
+    public static TokenBuffer lex(String sourceFile) throws Exception {
+        return lex(sourceFile, new ConcurrentSymbolTable(), ForkJoinPool.commonPool());
+    }
+
+/**
+ *  Scan a source file in parallel
+ *  @param sourceFile is the source file to scan
+ *  @param symbols is the table the symbols are entered in
+ *  @param pool runs the chunks
+ *  @return the tokens of the file
+ *  @throws Exception if the file cannot be read
+*/
+    public static TokenBuffer lex(String sourceFile, ConcurrentSymbolTable symbols,
+            ForkJoinPool pool) throws Exception {
+        SourceReader source = new SourceReader(sourceFile);
+        int chunkSize = Math.max(MIN_CHUNK, source.getLength() / (4 * pool.getParallelism()) + 1);
+        return lex(source, symbols, pool, chunkSize);
+    }
+
+    static TokenBuffer lex(SourceReader source, ConcurrentSymbolTable symbols,
+            ForkJoinPool pool, int chunkSize) {
+        char[] buffer = source.getBuffer();
+        int[] bounds = split(buffer, source.getLength(), chunkSize);
+        final Chunk[] chunks = new Chunk[bounds.length - 1];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(buffer, bounds[i], bounds[i + 1], symbols);
+        }
+        pool.invoke(new RecursiveAction() {
+            protected void compute() {
+                ForkJoinTask.invokeAll(chunks);
+            }
+        });
+        TokenBuffer tokens = new TokenBuffer(symbols);
+        SymbolTable history = null;  // symbols of the tokens stitched so far
+        int seen = 0;                // number of tokens entered in history
+        int lineOffset = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.usedHistory) {
+                if (history == null) {
+                    history = new SymbolTable();
+                }
+                for (; seen < tokens.size(); seen++) {
+                    history.symbol(tokens.symbol(seen).toString(), tokens.symbol(seen).getKind());
+                }
+                chunk.scan(history);
+                chunk.segment = chunk.segment.copyTo(symbols);
+            }
+            tokens.append(chunk.segment, lineOffset);
+            if (chunk.error != null) {
+                System.out.println(chunk.error);
+            }
+            if (chunk.stopped) {  // the Lexer gives up at the first error
+                break;
+            }
+            lineOffset += chunk.lines;
+        }
+        return tokens;
+    }
+
+/**
+ *  @param buffer holds the source program
+ *  @param length is the offset just past the source program
+ *  @param chunkSize is the least number of chars in a chunk
+ *  @return the offsets where the chunks begin, followed by length
+*/
+    static int[] split(char[] buffer, int length, int chunkSize) {
+        ArrayList<Integer> bounds = new ArrayList<Integer>();
+        bounds.add(0);
+        int start = 0;
+        while (length - start > chunkSize) {
+            start = lineAfter(buffer, start + chunkSize, length);
+            if (start >= length) {
+                break;
+            }
+            bounds.add(start);
+        }
+        bounds.add(length);
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+/**
+ *  @return the offset of the first line starting after offset i whose
+ *  previous line does not end with a quote, or length if there is none
+*/
+    private static int lineAfter(char[] buffer, int i, int length) {
+        for (; i < length; i++) {
+            char c = buffer[i];
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            int last = (c == '\n' && i > 0 && buffer[i - 1] == '\r') ? i - 2 : i - 1;
+            if (c == '\r' && i + 1 < length && buffer[i + 1] == '\n') {
+                i++;
+            }
+            if (last < 0 || buffer[last] != '\'') {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+}
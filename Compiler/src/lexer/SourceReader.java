@@ -1,19 +1,45 @@
 package lexer;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 
 /**
  *  This class is used to manage the source program input stream;
  *  each read request will return the next usable character; it
- *  maintains the source column position of the character
+ *  maintains the source column position of the character<br>
+ *  The whole source file is decoded into a single char buffer when
+ *  the reader is built (files of at least <i>MAP_THRESHOLD</i> bytes
+ *  are memory mapped rather than read); lines are never copied out
+ *  of the buffer, we only remember where the current line starts<br>
+ *  A reader built on a stream (a Reader, InputStream or channel) reads
+ *  it in chunks into a window that only has to hold the current line;
+ *  offsets are still counted from the start of the source
 */
 public class SourceReader {
-    private BufferedReader source;
+    public static final char EOF = '\uffff';  // returned by read() at end of file
+    static final int MAP_THRESHOLD = 1 << 20;  // map files at least 1MB long
+    static final int CHUNK = 1 << 13;          // chars read from a stream at a time
+
+    private char[] buffer;     // decoded source program (or a window onto it)
+    private int length,        // number of chars in buffer
+        offset,                // buffer index of the next char to process
+        lineStart,             // buffer index where the current line begins
+        current,               // buffer index of the character just read
+        base = 0;              // offset in the source of buffer[0]
+    private Reader in;         // stream the rest of the source comes from; null if none
     private int lineno = 0,   // line number of source program
         position;     // position of last character processed
     private boolean isPriorEndLine = true;  // if true then last character read was newline
-                             // so read in the next line
-    private String nextLine;
+                             // so start on the next line
+    private boolean echo;    // if true then print each line as it is read
+    private boolean eof = false;  // if true then the end of file has been read
 
 /**
  *  Construct a new SourceReader
@@ -21,47 +47,221 @@ public class SourceReader {
  *  @throws IOException is thrown if there is an I/O problem
 */
     public SourceReader(String sourceFile) throws IOException {
-        source = new BufferedReader(new FileReader(sourceFile));
+        this(sourceFile, false);
+    }
+
+/**
+ *  Construct a new SourceReader
+ *  @param sourceFile the String describing the user's source file
+ *  @param echo if true then each source line is printed as it is read
+ *  @throws IOException is thrown if there is an I/O problem
+*/
+    public SourceReader(String sourceFile, boolean echo) throws IOException {
+        this.echo = echo;
+        try (FileInputStream in = new FileInputStream(sourceFile)) {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("source file too large: " + sourceFile);
+            }
+            ByteBuffer bytes;
+            if (size >= MAP_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int)size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {}
+                bytes.flip();
+            }
+            CharBuffer chars = Charset.defaultCharset().decode(bytes);
+            buffer = chars.array();
+            length = chars.limit();
+        }
+    }
+
+/**
+ *  Construct a SourceReader over part of a source buffer that has already
+ *  been read; the range must begin at the start of a line. Offsets are
+ *  those of the whole buffer while line numbers start at 1 again
+ *  @param buffer holds the source program
+ *  @param start is the offset of the first char of the range
+ *  @param end is the offset just past the range
+*/
+    SourceReader(char[] buffer, int start, int end) {
+        this.buffer = buffer;
+        offset = lineStart = start;
+        length = end;
+    }
+
+/**
+ *  Construct a new SourceReader that streams the source from a Reader
+ *  @param in the Reader holding the source program
+ *  @param echo if true then each source line is printed as it is read
+*/
+    public SourceReader(Reader in, boolean echo) {
+        this.in = in;
+        this.echo = echo;
+        buffer = new char[CHUNK];
     }
 
-    /** Close the bufferedreader
-     * 
+/**
+ *  Construct a new SourceReader that streams the source from an
+ *  InputStream, decoding it with the default charset
+ *  @param in the stream holding the source program
+ *  @param echo if true then each source line is printed as it is read
+*/
+    public SourceReader(InputStream in, boolean echo) {
+        this(new InputStreamReader(in, Charset.defaultCharset()), echo);
+    }
+
+/**
+ *  Construct a new SourceReader that streams the source from a channel,
+ *  decoding it with the default charset
+ *  @param in the channel holding the source program
+ *  @param echo if true then each source line is printed as it is read
+*/
+    public SourceReader(ReadableByteChannel in, boolean echo) {
+        this(Channels.newReader(in, Charset.defaultCharset().newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE), CHUNK), echo);
+    }
+
+/**
+ *  Construct a new SourceReader over a program held in memory; a String
+ *  given to the constructors is taken as a file name
+ *  @param program the source program
+ *  @param echo if true then each source line is printed as it is read
+ *  @return the SourceReader
+*/
+    public static SourceReader fromText(CharSequence program, boolean echo) {
+        char[] chars = new char[program.length()];
+        CharBuffer.wrap(program).get(chars);
+        SourceReader source = new SourceReader(chars, 0, chars.length);
+        source.echo = echo;
+        return source;
+    }
+
+    /** Release the source buffer
+     *
      */
     void close() {
-        try {
-            source.close();
-        } catch (Exception e) {}
+        buffer = null;
+        length = 0;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {}
+            in = null;
+        }
+    }
+
+/**
+ *  make sure the whole of the line starting at lineStart is in the
+ *  buffer, reading more of the stream if needed; the chars before the
+ *  line are dropped to make room
+*/
+    private void fillLine() {
+        int i = lineStart;
+        while (true) {
+            while (i < length && buffer[i] != '\n' && buffer[i] != '\r') {
+                i++;
+            }
+            // done at a newline, or a return we can see past
+            if (in == null || i < length && (buffer[i] == '\n' || i + 1 < length)) {
+                return;
+            }
+            if (lineStart > 0) {  // drop the lines already read
+                System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+                base += lineStart;
+                i -= lineStart;
+                length -= lineStart;
+                offset -= lineStart;
+                current -= lineStart;
+                lineStart = 0;
+            }
+            if (buffer.length - length < CHUNK) {
+                buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, length + CHUNK));
+            }
+            try {
+                int n = in.read(buffer, length, CHUNK);
+                if (n < 0) {
+                    in.close();
+                    in = null;
+                } else {
+                    length += n;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+/**
+ *  @param echo if true then each source line is printed as it is read
+*/
+    public void setEcho(boolean echo) {
+        this.echo = echo;
     }
 
 /**
  *  read next char; track line #, character position in line<br>
- *  return space for newline
+ *  return space for newline and EOF at end of file; since EOF
+ *  could also appear in the source use isEOF() to tell them apart
  *  @return the character just read in
- *  @throws IOException is thrown for IO problems such as end of file
+ *  @throws UncheckedIOException if the stream cannot be read
 */
-    public char read() throws IOException {
+    public char read() {
         if (isPriorEndLine) {
             lineno++;
             position = -1;
-            nextLine = source.readLine();
-            if (nextLine != null) {
-                System.out.println(nextLine);
+            lineStart = offset;
+            if (in != null) {
+                fillLine();
+            }
+            if (echo && lineStart < length) {
+                echoLine();
             }
             isPriorEndLine = false;
         }
-        if (nextLine == null) {  // hit eof or some I/O problem
-            throw new IOException();
+        if (lineStart >= length) {  // hit eof
+            eof = true;
+            return EOF;
         }
-        if ( nextLine.length() == 0) {
+        current = offset;
+        char ch = (offset < length) ? buffer[offset] : '\n';
+        if (ch == '\n' || ch == '\r') {  // end of line (or last line without one)
+            if (offset > lineStart) {
+                position = offset - lineStart;
+            }
+            if (offset < length) {
+                offset++;
+                if (ch == '\r' && offset < length && buffer[offset] == '\n') {
+                    offset++;
+                }
+            }
             isPriorEndLine = true;
             return ' ';
         }
-        position++;
-        if (position >= nextLine.length()) {
-            isPriorEndLine = true;
-            return ' ';
+        position = offset - lineStart;
+        offset++;
+        return ch;
+    }
+
+/**
+ *  print the line that starts at lineStart
+*/
+    private void echoLine() {
+        int end = lineStart;
+        while (end < length && buffer[end] != '\n' && buffer[end] != '\r') {
+            end++;
         }
-        return nextLine.charAt(position);
+        System.out.println(String.valueOf(buffer, lineStart, end - lineStart));
+    }
+
+/**
+ *  @return true if the end of file has been read
+*/
+    public boolean isEOF() {
+        return eof;
     }
 
 /**
@@ -77,5 +277,37 @@ public class SourceReader {
     public int getLineno() {
         return lineno;
     }
-    
-}
\ No newline at end of file
+
+/**
+ *  @return the offset in the source of the character just read in; for
+ *  the space returned at the end of a line this is the offset of the line
+ *  terminator
+*/
+    public int getOffset() {
+        return base + current;
+    }
+
+/**
+ *  @return the offset in the source of the first char in the buffer
+*/
+    int getBase() {
+        return base;
+    }
+
+/**
+ *  @return the offset just past the source program in the buffer (for
+ *  a reader that is not streamed)
+*/
+    int getLength() {
+        return length;
+    }
+
+/**
+ *  @return the buffer holding the source program; for a streamed source
+ *  it holds the current line, starting at getBase()
+*/
+    public char[] getBuffer() {
+        return buffer;
+    }
+
+}
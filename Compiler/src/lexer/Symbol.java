@@ -3,23 +3,33 @@ package lexer;
 /**
  *  The Symbol class is used to store all user strings along with
  *  an indication of the kind of strings they are; e.g. the id "abc" will
- *  store the "abc" in name and Sym.Tokens.Identifier in kind
+ *  store the "abc" in name and Sym.Tokens.Identifier in kind<br>
+ *  Symbols are entered and found through a SymbolTable
 */
 public class Symbol {
-  private String name;
-  private Tokens kind;   // token kind of symbol
+  private final String name;
+  private final Tokens kind;   // token kind of symbol
+  private final int hash;      // hash of name; see hash(char[],int,int)
+  private final int id;        // dense number of the symbol in its SymbolTable
 
   /** Creates a new symbol
  * @param n the token
  * @param kind the kind of the symbol
+ * @param hash the hash of the token string
+ * @param id the id of the symbol
  */
-private Symbol(String n, Tokens kind) {
+Symbol(String n, Tokens kind, int hash, int id) {
     name=n;
     this.kind = kind;
+    this.hash = hash;
+    this.id = id;
   }
 
-  // symbols contains all strings in the source program
-  private static java.util.HashMap<String,Symbol> symbols = new java.util.HashMap<String,Symbol>();
+  // table used by symbol(String,Tokens); it is shared by all threads and
+  // only built when first used so the reserved words are entered by then
+  private static class Shared {
+    static final SymbolTable table = new ConcurrentSymbolTable(TokenType.symbols);
+  }
 
   public String toString() {
 	return name;
@@ -32,24 +42,54 @@ public Tokens getKind() {
     return kind;
   }
 
+  /**
+ * @return the id of the symbol; ids are numbered from 0 in the order
+ * the symbols were entered (starting with the reserved words)
+ */
+public int getId() {
+    return id;
+  }
+
   /**
    * Return the unique symbol associated with a string.
    * Repeated calls to <tt>symbol("abc")</tt> will return the same Symbol.
+   * The symbol is kept in a table shared by the whole program; a compilation
+   * should use its own SymbolTable instead
    * @param newTokenString is the Token to be converted into symbol
    * @param kind is the kind of the Token
    * @return Symbol is the symbol to be returned
    */
   public static Symbol symbol(String newTokenString, Tokens kind) {
-	Symbol s = symbols.get(newTokenString);
-	if (s == null) {
-	    if (kind == Tokens.BogusToken) {  // bogus string so don't enter into symbols
-	        return null;
+	return Shared.table.symbol(newTokenString, kind);
+  }
+
+  /**
+   * @return the same hash as String.hashCode() for the given characters
+   */
+  static int hash(char[] chars, int start, int end) {
+	int h = 0;
+	for (int i = start; i < end; i++) {
+	    h = 31 * h + chars[i];
+	}
+	return h;
+  }
+
+  int hash() {
+	return hash;
+  }
+
+  /**
+   * @return true if the symbol is spelled by <tt>chars[start..end-1]</tt>
+   */
+  boolean matches(char[] chars, int start, int end) {
+	if (name.length() != end - start) {
+	    return false;
+	}
+	for (int i = start; i < end; i++) {
+	    if (name.charAt(i - start) != chars[i]) {
+	        return false;
 	    }
-	    //System.out.println("new symbol: "+u+" Kind: "+kind);
-		s = new Symbol(newTokenString,kind);
-		symbols.put(newTokenString,s);
 	}
-	return s;
+	return true;
   }
 }
-
@@ -0,0 +1,174 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ *  The SymbolTable class holds the unique Symbol for each string seen by
+ *  a compilation; symbols are looked up directly from a range of chars so
+ *  no String is built unless the symbol is new<br>
+ *  Tables are layered: a table first looks in its parent (e.g. the reserved
+ *  words and operators in TokenType.symbols) and only enters the symbols it
+ *  does not find there; ids are dense, continuing from the ids of the parent<br>
+ *  A SymbolTable is not thread safe - each compilation (or thread) should
+ *  use its own; ConcurrentSymbolTable can be shared by several threads
+*/
+public class SymbolTable {
+    private final SymbolTable parent;  // table searched first; null for none
+    private final int firstId;         // id of the first symbol entered here
+    private Symbol[] table = new Symbol[256];  // open addressing on the hash
+    private Symbol[] byId = new Symbol[256];   // symbols entered here by id - firstId
+    private int count = 0;                     // number of symbols entered here
+
+/**
+ *  Create a table for one compilation on top of the reserved words
+*/
+    public SymbolTable() {
+        this(TokenType.symbols);
+    }
+
+/**
+ *  @param parent is the table to search before this one; it must not have
+ *  any symbols added to it once this table is built
+*/
+    public SymbolTable(SymbolTable parent) {
+        this.parent = parent;
+        firstId = (parent == null) ? 0 : parent.size();
+    }
+
+/**
+ *  Return the unique symbol associated with a string.
+ *  @param name is the string to be converted into a symbol
+ *  @param kind is the kind of the symbol; if it is BogusToken then no
+ *  new symbol is entered
+ *  @return the symbol, or null if there is none and kind is BogusToken
+*/
+    public Symbol symbol(String name, Tokens kind) {
+        char[] chars = name.toCharArray();
+        return symbol(chars, 0, chars.length, kind);
+    }
+
+/**
+ *  Return the unique symbol spelled by <tt>chars[start..end-1]</tt>; a
+ *  String is only built the first time the symbol is entered
+ *  @param chars holds the characters of the symbol
+ *  @param start is the index of the first character
+ *  @param end is the index just past the last character
+ *  @param kind is the kind of the symbol; if it is BogusToken then no
+ *  new symbol is entered
+ *  @return the symbol, or null if there is none and kind is BogusToken
+*/
+    public Symbol symbol(char[] chars, int start, int end, Tokens kind) {
+        int h = Symbol.hash(chars, start, end);
+        if (parent != null) {
+            Symbol sym = parent.find(chars, start, end, h);
+            if (sym != null) {
+                return sym;
+            }
+        }
+        return intern(chars, start, end, h, kind);
+    }
+
+/**
+ *  Like symbol() but the parents are not searched; used for ids and
+ *  numbers, which the caller knows are not reserved words or operators
+ *  @param chars holds the characters of the symbol
+ *  @param start is the index of the first character
+ *  @param end is the index just past the last character
+ *  @param kind is the kind of the symbol
+ *  @return the symbol
+*/
+    public Symbol enter(char[] chars, int start, int end, Tokens kind) {
+        return intern(chars, start, end, Symbol.hash(chars, start, end), kind);
+    }
+
+/**
+ *  @return the symbol in this table or its parents, or null if there is none
+*/
+    Symbol find(char[] chars, int start, int end, int h) {
+        if (parent != null) {
+            Symbol sym = parent.find(chars, start, end, h);
+            if (sym != null) {
+                return sym;
+            }
+        }
+        return lookup(table, chars, start, end, h);
+    }
+
+/**
+ *  @return the symbol in this table (not its parents), entering it if it
+ *  is new and kind is not BogusToken
+*/
+    Symbol intern(char[] chars, int start, int end, int h, Tokens kind) {
+        Symbol sym = lookup(table, chars, start, end, h);
+        if (sym != null || kind == Tokens.BogusToken) {
+            return sym;
+        }
+        sym = new Symbol(new String(chars, start, end - start), kind, h, firstId + count);
+        if (count == byId.length) {
+            byId = Arrays.copyOf(byId, 2 * count);
+        }
+        byId[count++] = sym;
+        if (2 * count > table.length) {  // keep the table at most half full
+            table = rehash(table, 2 * table.length);
+        }
+        insert(table, sym);
+        return sym;
+    }
+
+/**
+ *  @param id is the id of a symbol in this table or its parents
+ *  @return the symbol, or null if there is no such id
+*/
+    public Symbol get(int id) {
+        if (id < firstId) {
+            return parent.get(id);
+        }
+        return (id - firstId < count) ? byId[id - firstId] : null;
+    }
+
+/**
+ *  @return the number of symbols in this table and its parents; this is
+ *  also the id the next new symbol will get
+*/
+    public int size() {
+        return firstId + count;
+    }
+
+    int firstId() {
+        return firstId;
+    }
+
+    static int index(int h, int mask) {
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    static Symbol lookup(Symbol[] table, char[] chars, int start, int end, int h) {
+        int mask = table.length - 1;
+        for (int i = index(h, mask); table[i] != null; i = (i + 1) & mask) {
+            Symbol sym = table[i];
+            if (sym.hash() == h && sym.matches(chars, start, end)) {
+                return sym;
+            }
+        }
+        return null;
+    }
+
+    static void insert(Symbol[] table, Symbol sym) {
+        int mask = table.length - 1;
+        int i = index(sym.hash(), mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = sym;
+    }
+
+    static Symbol[] rehash(Symbol[] old, int size) {
+        Symbol[] table = new Symbol[size];
+        for (Symbol sym : old) {
+            if (sym != null) {
+                insert(table, sym);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,331 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ *  The TokenBuffer class holds a sequence of tokens without building a
+ *  Token object for each one; the information for token <i>i</i> is kept
+ *  at index <i>i</i> of parallel arrays: its kind, the id of its Symbol,
+ *  its start and end offsets in the source, its line number and
+ *  the column where it begins<br>
+ *  A buffer built on a Lexer is filled on demand, so tokens can be read
+ *  (and looked ahead at) before the whole source has been scanned; the
+ *  Lexer may also run on a thread of its own (see TokenPipe). Tokens
+ *  that will not be read again may be released, so a buffer that is read
+ *  once from start to end need only hold the tokens between its reader
+ *  and the Lexer
+*/
+public class TokenBuffer {
+    private static final Tokens[] KINDS = Tokens.values();
+
+    private byte[] kinds;     // ordinal of each token kind
+    private int[] symbols,    // symbol id of each token
+        starts, ends,         // offsets of each token in the source
+        lines, columns;       // line number and starting column of each token
+    private int count = 0;    // number of tokens in the buffer
+    private int base = 0;     // index of the token at the front of the arrays
+    private int first = 0;    // index of the first token not released
+    private Lexer lex;        // scanner for the rest of the tokens; null when done
+    private TokenPipe pipe;   // or the pipe they come through; null when done
+    private SymbolTable table;  // table the symbol ids refer to
+
+/**
+ *  Create an empty buffer; tokens are entered with add()
+ *  @param table is the table holding the symbols of the tokens
+*/
+    public TokenBuffer(SymbolTable table) {
+        this((Lexer)null, table);
+    }
+
+/**
+ *  Create a buffer that is filled with the tokens scanned by the Lexer
+ *  as they are needed
+ *  @param lex is the Lexer to take the tokens from
+*/
+    public TokenBuffer(Lexer lex) {
+        this(lex, lex.getSymbolTable());
+    }
+
+/**
+ *  Create a buffer that is filled with the tokens of a Lexer running on
+ *  a thread of its own
+ *  @param pipe is the pipe the tokens come through
+ *  @param table is the table holding the symbols of the tokens
+*/
+    TokenBuffer(TokenPipe pipe, SymbolTable table) {
+        this((Lexer)null, table);
+        this.pipe = pipe;
+    }
+
+    private TokenBuffer(Lexer lex, SymbolTable table) {
+        this.lex = lex;
+        this.table = table;
+        kinds = new byte[256];
+        symbols = new int[256];
+        starts = new int[256];
+        ends = new int[256];
+        lines = new int[256];
+        columns = new int[256];
+    }
+
+/**
+ *  Enter a new token at the end of the buffer
+ *  @param kind is the kind of the token
+ *  @param symbol is the Symbol of the token
+ *  @param start is the offset in the source where the token begins
+ *  @param end is the offset in the source just past the token
+ *  @param line is the line number of the token
+ *  @param column is the column where the token begins
+*/
+    public void add(Tokens kind, Symbol symbol, int start, int end, int line, int column) {
+        add((byte)kind.ordinal(), symbol.getId(), start, end, line, column);
+    }
+
+/**
+ *  Enter a new token at the end of the buffer
+ *  @param kind is the ordinal of the kind of the token
+ *  @param symbol is the id of the Symbol of the token
+*/
+    void add(byte kind, int symbol, int start, int end, int line, int column) {
+        if (count - base == kinds.length) {
+            if (2 * (first - base) >= kinds.length) {  // half are released; move the rest down
+                compact();
+            } else {  // grow geometrically
+                int size = 2 * kinds.length;
+                kinds = Arrays.copyOf(kinds, size);
+                symbols = Arrays.copyOf(symbols, size);
+                starts = Arrays.copyOf(starts, size);
+                ends = Arrays.copyOf(ends, size);
+                lines = Arrays.copyOf(lines, size);
+                columns = Arrays.copyOf(columns, size);
+            }
+        }
+        int j = count - base;
+        kinds[j] = kind;
+        symbols[j] = symbol;
+        starts[j] = start;
+        ends[j] = end;
+        lines[j] = line;
+        columns[j] = column;
+        count++;
+    }
+
+/**
+ *  Release the tokens before token i; they are not read again. A buffer
+ *  with released tokens cannot be appended, spliced or copied
+ *  @param i is the index of the first token that is still needed
+*/
+    public void release(int i) {
+        first = Math.max(first, Math.min(i, count));
+    }
+
+/**
+ *  move the tokens that have not been released to the front of the arrays
+*/
+    private void compact() {
+        int from = first - base, n = count - first;
+        System.arraycopy(kinds, from, kinds, 0, n);
+        System.arraycopy(symbols, from, symbols, 0, n);
+        System.arraycopy(starts, from, starts, 0, n);
+        System.arraycopy(ends, from, ends, 0, n);
+        System.arraycopy(lines, from, lines, 0, n);
+        System.arraycopy(columns, from, columns, 0, n);
+        base = first;
+    }
+
+/**
+ *  Enter all of the tokens of another buffer at the end of this one
+ *  @param segment is the buffer holding the tokens; it must use the
+ *  same SymbolTable
+ *  @param lineOffset is added to the line number of each token
+*/
+    public void append(TokenBuffer segment, int lineOffset) {
+        int n = segment.size();
+        if (count + n > kinds.length) {
+            int size = Math.max(2 * kinds.length, count + n);
+            kinds = Arrays.copyOf(kinds, size);
+            symbols = Arrays.copyOf(symbols, size);
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            lines = Arrays.copyOf(lines, size);
+            columns = Arrays.copyOf(columns, size);
+        }
+        System.arraycopy(segment.kinds, 0, kinds, count, n);
+        System.arraycopy(segment.symbols, 0, symbols, count, n);
+        System.arraycopy(segment.starts, 0, starts, count, n);
+        System.arraycopy(segment.ends, 0, ends, count, n);
+        System.arraycopy(segment.columns, 0, columns, count, n);
+        for (int i = 0; i < n; i++) {
+            lines[count + i] = segment.lines[i] + lineOffset;
+        }
+        count += n;
+    }
+
+/**
+ *  Replace tokens from..to-1 with the tokens of another buffer and move
+ *  the tokens after them; the buffer must already be filled
+ *  @param from is the index of the first token to replace
+ *  @param to is the index just past the last token to replace
+ *  @param replacement holds the new tokens; it must use the same SymbolTable
+ *  @param offsetDelta is added to the offsets of the tokens after them
+ *  @param lineDelta is added to the line numbers of the tokens after them
+*/
+    public void splice(int from, int to, TokenBuffer replacement, int offsetDelta, int lineDelta) {
+        int n = replacement.size(), tail = count - to, size = from + n + tail;
+        if (size > kinds.length) {
+            size = Math.max(2 * kinds.length, size);
+            kinds = Arrays.copyOf(kinds, size);
+            symbols = Arrays.copyOf(symbols, size);
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            lines = Arrays.copyOf(lines, size);
+            columns = Arrays.copyOf(columns, size);
+        }
+        System.arraycopy(kinds, to, kinds, from + n, tail);
+        System.arraycopy(symbols, to, symbols, from + n, tail);
+        System.arraycopy(starts, to, starts, from + n, tail);
+        System.arraycopy(ends, to, ends, from + n, tail);
+        System.arraycopy(lines, to, lines, from + n, tail);
+        System.arraycopy(columns, to, columns, from + n, tail);
+        count = from;
+        append(replacement, 0);
+        for (int i = count; i < count + tail; i++) {
+            starts[i] += offsetDelta;
+            ends[i] += offsetDelta;
+            lines[i] += lineDelta;
+        }
+        count += tail;
+    }
+
+/**
+ *  @param table is the table to enter the symbols in
+ *  @return a copy of the buffer whose symbols are those of the given table
+*/
+    public TokenBuffer copyTo(SymbolTable table) {
+        TokenBuffer copy = new TokenBuffer(table);
+        for (int i = 0; i < size(); i++) {
+            Symbol sym = symbol(i);
+            copy.add(kind(i), table.symbol(sym.toString(), sym.getKind()),
+                starts[i], ends[i], lines[i], columns[i]);
+        }
+        return copy;
+    }
+
+/**
+ *  Make sure token i has been scanned if there is one
+ *  @param i is the index of the token
+ *  @return true if there is a token i
+*/
+    public boolean has(int i) {
+        while (i >= count) {
+            if (pipe != null) {
+                if (!pipe.take(this)) {
+                    pipe = null;
+                    return false;
+                }
+                continue;
+            }
+            if (lex == null) {
+                return false;
+            }
+            Tokens kind = lex.scanToken();
+            if (kind == null) {
+                lex = null;
+                return false;
+            }
+            add(kind, lex.getSymbol(), lex.getStartOffset(), lex.getEndOffset(),
+                lex.getLineNo(), lex.getLeftPosition());
+        }
+        return true;
+    }
+
+/**
+ *  Stop a Lexer running on a thread of its own (see TokenPipe); the
+ *  tokens it has not handed over yet are dropped
+*/
+    public void cancel() {
+        if (pipe != null) {
+            pipe.cancel();
+            pipe = null;
+        }
+    }
+
+/**
+ *  @return the number of tokens; all of the source is scanned first
+*/
+    public int size() {
+        has(Integer.MAX_VALUE - 1);
+        return count;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the kind of token i, or null if there are fewer tokens
+*/
+    public Tokens kind(int i) {
+        if (i >= count && !has(i)) {
+            return null;
+        }
+        return KINDS[kinds[i - base]];
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the Symbol of token i
+*/
+    public Symbol symbol(int i) {
+        return has(i) ? table.get(symbols[i - base]) : null;
+    }
+
+/**
+ *  @return the table holding the symbols of the tokens
+*/
+    public SymbolTable getSymbolTable() {
+        return table;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the line number of token i
+*/
+    public int line(int i) {
+        return has(i) ? lines[i - base] : -1;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the offset in the source where token i begins
+*/
+    public int start(int i) {
+        return has(i) ? starts[i - base] : -1;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the offset in the source just past token i
+*/
+    public int end(int i) {
+        return has(i) ? ends[i - base] : -1;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return the column where token i begins
+*/
+    public int column(int i) {
+        return has(i) ? columns[i - base] : -1;
+    }
+
+/**
+ *  @param i is the index of the token
+ *  @return a Token object for token i, or null if there are fewer tokens
+*/
+    public Token token(int i) {
+        if (!has(i)) {
+            return null;
+        }
+        int j = i - base;
+        return new Token(columns[j], columns[j] + ends[j] - starts[j] - 1,
+            table.get(symbols[j]), lines[j]);
+    }
+}
@@ -0,0 +1,201 @@
+package lexer;
+ 
+/**
+ *  This file is automatically generated<br>
+ *  it contains the character classes and the transition
+ *  tables of the DFA used by the Lexer to recognize ids,
+ *  numbers and operators, and the table used to tell the
+ *  reserved words from ids
+*/
+public class TokenDFA {
+   public static final int OTHER = 0;
+   public static final int SPACE = 1;
+   public static final int LETTER = 2;
+   public static final int IDPART = 3;
+   public static final int DIGIT = 4;
+   public static final int DOT = 5;
+   public static final int QUOTE = 6;
+   public static final int EXPONENT = 7;
+   public static final int CLASSES = 23;
+   public static final int START = 0, REJECT = -1;
+ 
+   // class of each ASCII character
+   static final byte[] CHAR_CLASS = {
+     3,3,3,3,3,3,3,3,3,1,1,1,1,1,3,3,
+     3,3,3,3,3,3,3,3,3,3,3,3,1,1,1,1,
+     1,14,0,0,2,0,19,6,10,11,20,16,12,17,5,21,
+     4,4,4,4,4,4,4,4,4,4,0,0,15,13,22,0,
+     0,2,2,2,2,7,2,2,2,2,2,2,2,2,2,2,
+     2,2,2,2,2,2,2,2,2,2,2,0,0,0,0,2,
+     0,2,2,2,2,7,2,2,2,2,2,2,2,2,2,2,
+     2,2,2,2,2,2,2,2,2,2,2,8,18,9,0,3,
+   };
+ 
+   // next state for state * CLASSES + class; START (0) when there is none
+   static final byte[] NEXT = {
+     0,0,1,0,2,8,0,1,10,11,12,13,14,15,17,19,21,22,23,24,25,26,28,  // START
+     0,0,1,1,1,0,0,1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // ID
+     0,0,0,0,2,3,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // INT
+     0,0,0,0,4,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // INT_DOT
+     0,0,0,0,4,0,0,5,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // FRACTION
+     0,0,0,0,7,0,0,0,0,0,0,0,0,0,0,0,6,6,0,0,0,0,0,  // EXP_E
+     0,0,0,0,7,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // EXP_SIGN
+     0,0,0,0,7,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // EXP
+     0,0,0,0,9,-1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // DOT_START
+     0,0,0,0,9,-1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // DOT_FRACTION
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // {
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // }
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // (
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // )
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // ,
+     0,0,0,0,0,0,0,0,0,0,0,0,0,16,0,0,0,0,0,0,0,0,0,  // =
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // ==
+     0,0,0,0,0,0,0,0,0,0,0,0,0,18,0,0,0,0,0,0,0,0,0,  // !
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // !=
+     0,0,0,0,0,0,0,0,0,0,0,0,0,20,0,0,0,0,0,0,0,0,0,  // <
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // <=
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // +
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // -
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // |
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // &
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // *
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,27,0,  // /
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // //
+     0,0,0,0,0,0,0,0,0,0,0,0,0,29,0,0,0,0,0,0,0,0,0,  // >
+     0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,  // >=
+   };
+ 
+   // token kind accepted in each state
+   static final Tokens[] ACCEPT = {
+     null,
+     Tokens.Identifier,
+     Tokens.INTeger,
+     Tokens.FLOat,
+     Tokens.FLOat,
+     null,
+     null,
+     Tokens.ScientificN,
+     Tokens.FLOat,
+     Tokens.FLOat,
+     Tokens.LeftBrace,
+     Tokens.RightBrace,
+     Tokens.LeftParen,
+     Tokens.RightParen,
+     Tokens.Comma,
+     Tokens.Assign,
+     Tokens.Equal,
+     Tokens.Not,
+     Tokens.NotEqual,
+     Tokens.Less,
+     Tokens.LessEqual,
+     Tokens.Plus,
+     Tokens.Minus,
+     Tokens.Or,
+     Tokens.And,
+     Tokens.Multiply,
+     Tokens.Divide,
+     Tokens.Comment,
+     Tokens.Greater,
+     Tokens.GreaterEqual,
+   };
+ 
+   // printstring of the operator accepted in each state
+   static final String[] TEXT = {
+     null,
+     null,
+     null,
+     null,
+     null,
+     null,
+     null,
+     null,
+     null,
+     null,
+     "{",
+     "}",
+     "(",
+     ")",
+     ",",
+     "=",
+     "==",
+     "!",
+     "!=",
+     "<",
+     "<=",
+     "+",
+     "-",
+     "|",
+     "&",
+     "*",
+     "/",
+     "//",
+     ">",
+     ">=",
+   };
+ 
+   /**
+    * @param ch is the character to classify; characters that are
+    * not ASCII are classified by the Character methods
+    * @return the class of the character
+    */
+   public static int classOf(char ch) {
+     if (ch < 128) {
+       return CHAR_CLASS[ch];
+     }
+     if (Character.isJavaIdentifierStart(ch)) {
+       return LETTER;
+     }
+     if (Character.isDigit(ch)) {
+       return DIGIT;
+     }
+     if (Character.isJavaIdentifierPart(ch)) {
+       return IDPART;
+     }
+     return Character.isWhitespace(ch) ? SPACE : OTHER;
+   }
+ 
+   // reserved words by perfect hash; see keyword()
+   static final char[][] KEYWORDS = {
+     "program".toCharArray(),
+     "int".toCharArray(),
+     "return".toCharArray(),
+     "char".toCharArray(),
+     "then".toCharArray(),
+     null,
+     "function".toCharArray(),
+     "while".toCharArray(),
+     null,
+     "if".toCharArray(),
+     "boolean".toCharArray(),
+     null,
+     "do".toCharArray(),
+     "else".toCharArray(),
+     "float".toCharArray(),
+     null,
+   };
+ 
+   /**
+    * @param chars holds the characters of an id
+    * @param start is the index of the first character
+    * @param end is the index just past the last character
+    * @return the slot of the reserved word in KEYWORDS, or -1 if
+    * the id is not a reserved word
+    */
+   public static int keyword(char[] chars, int start, int end) {
+     int length = end - start;
+     if (length < 2 || length > 8) {
+       return -1;
+     }
+     int h = (chars[start] * 1 + chars[end - 1] * 8 + length * 8) & 15;
+     char[] word = KEYWORDS[h];
+     if (word == null || word.length != length) {
+       return -1;
+     }
+     for (int i = 0; i < length; i++) {
+       if (word[i] != chars[start + i]) {
+         return -1;
+       }
+     }
+     return h;
+   }
+}
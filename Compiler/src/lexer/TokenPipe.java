@@ -0,0 +1,185 @@
+package lexer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *  TokenPipe runs a Lexer on a thread of its own and hands its tokens to
+ *  a TokenBuffer read on another thread, so scanning and parsing overlap<br>
+ *  The tokens go through a ring of parallel arrays with one writer (the
+ *  Lexer's thread) and one reader (the buffer's). The writer publishes
+ *  its position after each batch of tokens and the reader takes all of
+ *  the tokens published at once, so the threads seldom touch the same
+ *  memory. A thread that has to wait (for tokens, or for room in the
+ *  ring) spins for a while and then parks until the other wakes it<br>
+ *  The Lexer must enter its symbols in a ConcurrentSymbolTable, as the
+ *  reader looks them up while the Lexer is still entering new ones.
+ *  Lexical errors are printed by the Lexer's thread as it finds them
+*/
+public class TokenPipe implements Runnable {
+    static final int CAPACITY = 1 << 14;  // tokens in the ring; a power of 2
+    static final int BATCH = 1 << 8;      // tokens published at a time
+    // spins before parking; none when there is only one processor to share
+    private static final int SPINS =
+        (Runtime.getRuntime().availableProcessors() > 1) ? 1 << 10 : 0;
+    private static final long PARK_NANOS = 1000000;  // wake up to look again
+
+    private final Lexer lex;
+    private final byte[] kinds = new byte[CAPACITY];
+    private final int[] symbols = new int[CAPACITY], starts = new int[CAPACITY],
+        ends = new int[CAPACITY], lines = new int[CAPACITY], columns = new int[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(),  // tokens published by the writer
+        head = new AtomicLong();                        // tokens taken by the reader
+    private volatile boolean done, cancelled;
+    private volatile Thread reader, writer;  // the thread parked waiting, if any
+    private Throwable failure;  // thrown by the Lexer; read once done is seen
+
+    private TokenPipe(Lexer lex) {
+        this.lex = lex;
+    }
+
+/**
+ *  Start a Lexer on a thread of its own
+ *  @param lex is the Lexer; its SymbolTable must be a ConcurrentSymbolTable
+ *  @return a buffer that is filled with the Lexer's tokens as they are
+ *  needed, waiting for the Lexer if it has not scanned them yet
+*/
+    public static TokenBuffer start(Lexer lex) {
+        if (!(lex.getSymbolTable() instanceof ConcurrentSymbolTable)) {
+            throw new IllegalArgumentException("a pipelined Lexer needs a ConcurrentSymbolTable");
+        }
+        TokenPipe pipe = new TokenPipe(lex);
+        Thread thread = new Thread(pipe, "lexer");
+        thread.setDaemon(true);
+        thread.start();
+        return new TokenBuffer(pipe, lex.getSymbolTable());
+    }
+
+/**
+ *  scan the tokens into the ring
+*/
+    public void run() {
+        long t = 0, room = CAPACITY;  // the ring is full when t reaches room
+        try {
+            Tokens kind;
+            while ((kind = lex.scanToken()) != null) {
+                if (t == room) {
+                    tail.set(t);
+                    wakeReader();
+                    room = awaitRoom(t);
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                int j = (int)t & (CAPACITY - 1);
+                kinds[j] = (byte)kind.ordinal();
+                symbols[j] = lex.getSymbol().getId();
+                starts[j] = lex.getStartOffset();
+                ends[j] = lex.getEndOffset();
+                lines[j] = lex.getLineNo();
+                columns[j] = lex.getLeftPosition();
+                t++;
+                if ((t & (BATCH - 1)) == 0) {
+                    tail.set(t);
+                    wakeReader();
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            tail.set(t);
+            done = true;
+            wakeReader();
+        }
+    }
+
+/**
+ *  wait until the reader has taken some of the tokens in the ring
+ *  @param t is the number of tokens written
+ *  @return the number of tokens that may be written before waiting again
+*/
+    private long awaitRoom(long t) {
+        for (int spins = 0; ; spins++) {
+            long h = head.get();
+            if (t - h < CAPACITY || cancelled) {
+                return h + CAPACITY;
+            }
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                writer = Thread.currentThread();
+                if (t - head.get() == CAPACITY && !cancelled) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                writer = null;
+            }
+        }
+    }
+
+    private void wakeReader() {
+        Thread thread = reader;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+/**
+ *  Add the tokens published since the last call to the buffer, waiting
+ *  for the Lexer if there are none
+ *  @param buffer is the buffer being filled
+ *  @return false if the Lexer has finished and all of its tokens have
+ *  been taken
+*/
+    boolean take(TokenBuffer buffer) {
+        long h = head.get(), t = tail.get();
+        for (int spins = 0; t == h; spins++) {
+            boolean finished = done;
+            t = tail.get();
+            if (t != h) {
+                break;
+            }
+            if (finished) {
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException)failure;
+                } else if (failure instanceof Error) {
+                    throw (Error)failure;
+                }
+                return false;
+            }
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                reader = Thread.currentThread();
+                if (tail.get() == h && !done) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                reader = null;
+            }
+            t = tail.get();
+        }
+        for (long k = h; k < t; k++) {
+            int j = (int)k & (CAPACITY - 1);
+            buffer.add(kinds[j], symbols[j], starts[j], ends[j], lines[j], columns[j]);
+        }
+        head.set(t);
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+/**
+ *  Stop the Lexer; the tokens it has not handed over are dropped
+*/
+    void cancel() {
+        cancelled = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -3,47 +3,51 @@ package lexer;
 /**
  *  This file is automatically generated<br>
  *  it contains the table of mappings from token
- *  constants to their Symbols
+ *  constants to their Symbols and the SymbolTable holding
+ *  them, which every compilation's SymbolTable is built on
 */
 public class TokenType {
    public static java.util.HashMap<Tokens,Symbol> tokens = new java.util.HashMap<Tokens,Symbol>();
+   public static final SymbolTable symbols = new SymbolTable(null);  // reserved words and operators
+   static {
+     tokens.put(Tokens.Program, symbols.symbol("program",Tokens.Program));
+     tokens.put(Tokens.Int, symbols.symbol("int",Tokens.Int));
+     tokens.put(Tokens.BOOLean, symbols.symbol("boolean",Tokens.BOOLean));
+     tokens.put(Tokens.If, symbols.symbol("if",Tokens.If));
+     tokens.put(Tokens.Then, symbols.symbol("then",Tokens.Then));
+     tokens.put(Tokens.Else, symbols.symbol("else",Tokens.Else));
+     tokens.put(Tokens.While, symbols.symbol("while",Tokens.While));
+     tokens.put(Tokens.Function, symbols.symbol("function",Tokens.Function));
+     tokens.put(Tokens.Return, symbols.symbol("return",Tokens.Return));
+     tokens.put(Tokens.Identifier, symbols.symbol("<id>",Tokens.Identifier));
+     tokens.put(Tokens.INTeger, symbols.symbol("<int>",Tokens.INTeger));
+     tokens.put(Tokens.LeftBrace, symbols.symbol("{",Tokens.LeftBrace));
+     tokens.put(Tokens.RightBrace, symbols.symbol("}",Tokens.RightBrace));
+     tokens.put(Tokens.LeftParen, symbols.symbol("(",Tokens.LeftParen));
+     tokens.put(Tokens.RightParen, symbols.symbol(")",Tokens.RightParen));
+     tokens.put(Tokens.Comma, symbols.symbol(",",Tokens.Comma));
+     tokens.put(Tokens.Assign, symbols.symbol("=",Tokens.Assign));
+     tokens.put(Tokens.Equal, symbols.symbol("==",Tokens.Equal));
+     tokens.put(Tokens.NotEqual, symbols.symbol("!=",Tokens.NotEqual));
+     tokens.put(Tokens.Less, symbols.symbol("<",Tokens.Less));
+     tokens.put(Tokens.LessEqual, symbols.symbol("<=",Tokens.LessEqual));
+     tokens.put(Tokens.Plus, symbols.symbol("+",Tokens.Plus));
+     tokens.put(Tokens.Minus, symbols.symbol("-",Tokens.Minus));
+     tokens.put(Tokens.Or, symbols.symbol("|",Tokens.Or));
+     tokens.put(Tokens.And, symbols.symbol("&",Tokens.And));
+     tokens.put(Tokens.Multiply, symbols.symbol("*",Tokens.Multiply));
+     tokens.put(Tokens.Divide, symbols.symbol("/",Tokens.Divide));
+     tokens.put(Tokens.Comment, symbols.symbol("//",Tokens.Comment));
+     tokens.put(Tokens.Float, symbols.symbol("float",Tokens.Float));
+     tokens.put(Tokens.FLOat, symbols.symbol("<float>",Tokens.FLOat));
+     tokens.put(Tokens.Char, symbols.symbol("char",Tokens.Char));
+     tokens.put(Tokens.CHar, symbols.symbol("<char>",Tokens.CHar));
+     tokens.put(Tokens.Greater, symbols.symbol(">",Tokens.Greater));
+     tokens.put(Tokens.GreaterEqual, symbols.symbol(">=",Tokens.GreaterEqual));
+     tokens.put(Tokens.ScientificN, symbols.symbol("<scientificN>",Tokens.ScientificN));
+     tokens.put(Tokens.Not, symbols.symbol("!",Tokens.Not));
+     tokens.put(Tokens.Do, symbols.symbol("do",Tokens.Do));
+   }
    public TokenType() {
-     tokens.put(Tokens.Program, Symbol.symbol("program",Tokens.Program));
-     tokens.put(Tokens.Int, Symbol.symbol("int",Tokens.Int));
-     tokens.put(Tokens.BOOLean, Symbol.symbol("boolean",Tokens.BOOLean));
-     tokens.put(Tokens.If, Symbol.symbol("if",Tokens.If));
-     tokens.put(Tokens.Then, Symbol.symbol("then",Tokens.Then));
-     tokens.put(Tokens.Else, Symbol.symbol("else",Tokens.Else));
-     tokens.put(Tokens.While, Symbol.symbol("while",Tokens.While));
-     tokens.put(Tokens.Function, Symbol.symbol("function",Tokens.Function));
-     tokens.put(Tokens.Return, Symbol.symbol("return",Tokens.Return));
-     tokens.put(Tokens.Identifier, Symbol.symbol("<id>",Tokens.Identifier));
-     tokens.put(Tokens.INTeger, Symbol.symbol("<int>",Tokens.INTeger));
-     tokens.put(Tokens.LeftBrace, Symbol.symbol("{",Tokens.LeftBrace));
-     tokens.put(Tokens.RightBrace, Symbol.symbol("}",Tokens.RightBrace));
-     tokens.put(Tokens.LeftParen, Symbol.symbol("(",Tokens.LeftParen));
-     tokens.put(Tokens.RightParen, Symbol.symbol(")",Tokens.RightParen));
-     tokens.put(Tokens.Comma, Symbol.symbol(",",Tokens.Comma));
-     tokens.put(Tokens.Assign, Symbol.symbol("=",Tokens.Assign));
-     tokens.put(Tokens.Equal, Symbol.symbol("==",Tokens.Equal));
-     tokens.put(Tokens.NotEqual, Symbol.symbol("!=",Tokens.NotEqual));
-     tokens.put(Tokens.Less, Symbol.symbol("<",Tokens.Less));
-     tokens.put(Tokens.LessEqual, Symbol.symbol("<=",Tokens.LessEqual));
-     tokens.put(Tokens.Plus, Symbol.symbol("+",Tokens.Plus));
-     tokens.put(Tokens.Minus, Symbol.symbol("-",Tokens.Minus));
-     tokens.put(Tokens.Or, Symbol.symbol("|",Tokens.Or));
-     tokens.put(Tokens.And, Symbol.symbol("&",Tokens.And));
-     tokens.put(Tokens.Multiply, Symbol.symbol("*",Tokens.Multiply));
-     tokens.put(Tokens.Divide, Symbol.symbol("/",Tokens.Divide));
-     tokens.put(Tokens.Comment, Symbol.symbol("//",Tokens.Comment));
-     tokens.put(Tokens.Float, Symbol.symbol("float",Tokens.Float));
-     tokens.put(Tokens.FLOat, Symbol.symbol("<float>",Tokens.FLOat));
-     tokens.put(Tokens.Char, Symbol.symbol("char",Tokens.Char));
-     tokens.put(Tokens.CHar, Symbol.symbol("<char>",Tokens.CHar));
-     tokens.put(Tokens.Greater, Symbol.symbol(">",Tokens.Greater));
-     tokens.put(Tokens.GreaterEqual, Symbol.symbol(">=",Tokens.GreaterEqual));
-     tokens.put(Tokens.ScientificN, Symbol.symbol("<scientificN>",Tokens.ScientificN));
-     tokens.put(Tokens.Not, Symbol.symbol("!",Tokens.Not));
-     tokens.put(Tokens.Do, Symbol.symbol("do",Tokens.Do));
    }
 }
@@ -0,0 +1,276 @@
+package lexer.setup;
+
+import java.util.*;
+import java.io.*;
+
+/**
+ *  DFASetup builds the tables for the DFA that the Lexer runs over the
+ *  source program and writes them to <i>TokenDFA.java</i>:<ul>
+ *  <li>a character class for each ASCII character</li>
+ *  <li>the next state for each state and character class</li>
+ *  <li>the token kind (if any) accepted in each state</li>
+ *  <li>a perfect hash of the reserved words (see KeywordSetup)</li></ul>
+ *  The operators are taken from the <i>tokens</i> file; the shapes of
+ *  ids, ints, floats and scientific numbers (<i>&lt;id&gt;, &lt;int&gt;,
+ *  &lt;float&gt;</i> and <i>&lt;scientificN&gt;</i>) are built in here;
+ *  chars are left to the Lexer since they may hold any character
+*/
+class DFASetup {
+    // character classes other than the one given to each operator character
+    static final String[] CLASS_NAMES = {"OTHER", "SPACE", "LETTER", "IDPART",
+        "DIGIT", "DOT", "QUOTE", "EXPONENT"};
+    static final int OTHER = 0, SPACE = 1, LETTER = 2, IDPART = 3,
+        DIGIT = 4, DOT = 5, QUOTE = 6, EXPONENT = 7;
+
+    // states for ids and numbers; the operator states follow them
+    static final String[] STATE_NAMES = {"START", "ID", "INT", "INT_DOT",
+        "FRACTION", "EXP_E", "EXP_SIGN", "EXP", "DOT_START", "DOT_FRACTION"};
+    static final int START = 0, ID = 1, INT = 2, INT_DOT = 3, FRACTION = 4,
+        EXP_E = 5, EXP_SIGN = 6, EXP = 7, DOT_START = 8, DOT_FRACTION = 9;
+    static final int REJECT = -1;  // give up on the token; the Lexer takes over
+
+    private ArrayList<String> types, values;
+    private int[] charClass = new int[128];
+    private ArrayList<Character> classChars = new ArrayList<Character>(); // char of each operator class
+    private ArrayList<int[]> next = new ArrayList<int[]>();
+    private ArrayList<String> names = new ArrayList<String>(),  // for each state
+        accept = new ArrayList<String>(),
+        text = new ArrayList<String>();
+
+/**
+ *  @param types are the token types read from the tokens file
+ *  @param values are the matching token printstrings
+*/
+    DFASetup(ArrayList<String> types, ArrayList<String> values) {
+        this.types = types;
+        this.values = values;
+    }
+
+/**
+ *  @param value is a token printstring
+ *  @return true if the token is an operator or separator
+*/
+    static boolean isOperator(String value) {
+        return !value.matches("<\\w+>") && !Character.isJavaIdentifierStart(value.charAt(0));
+    }
+
+/**
+ *  @param value is the printstring of a token with a built in shape, e.g. <i>&lt;id&gt;</i>
+ *  @return the type of the token
+*/
+    private String type(String value) {
+        int i = values.indexOf(value);
+        if (i < 0) {
+            System.out.println("***tokens file does not have " + value + "***");
+            System.exit(1);
+        }
+        return "Tokens." + types.get(i);
+    }
+
+    private int addState(String name, String kind, String s) {
+        next.add(new int[CLASS_NAMES.length + classChars.size()]);
+        names.add(name);
+        accept.add(kind);
+        text.add(s);
+        return next.size() - 1;
+    }
+
+/**
+ *  give each character its class; operator characters (and the signs
+ *  of exponents) each get their own class
+*/
+    void buildClasses() {
+        for (int i = 0; i < values.size(); i++) {
+            if (isOperator(values.get(i))) {
+                for (char c : values.get(i).toCharArray()) {
+                    if (!classChars.contains(c)) {
+                        classChars.add(c);
+                    }
+                }
+            }
+        }
+        for (char c : new char[] {'+', '-'}) {
+            if (!classChars.contains(c)) {
+                classChars.add(c);
+            }
+        }
+        for (char c = 0; c < 128; c++) {
+            int opClass = classChars.indexOf(c);
+            if (Character.isWhitespace(c)) {
+                charClass[c] = SPACE;
+            } else if (c == '.') {
+                charClass[c] = DOT;
+            } else if (c == '\'') {
+                charClass[c] = QUOTE;
+            } else if (c == 'e' || c == 'E') {
+                charClass[c] = EXPONENT;
+            } else if (Character.isDigit(c)) {
+                charClass[c] = DIGIT;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                charClass[c] = LETTER;
+            } else if (Character.isJavaIdentifierPart(c)) {
+                charClass[c] = IDPART;
+            } else {
+                charClass[c] = (opClass < 0) ? OTHER : CLASS_NAMES.length + opClass;
+                continue;
+            }
+            if (opClass >= 0) {
+                System.out.println("***operator character " + c + " is also used by ids or numbers***");
+                System.exit(1);
+            }
+        }
+    }
+
+/**
+ *  build the states for ids and numbers followed by a state for each
+ *  prefix of an operator
+*/
+    void buildStates() {
+        String id = type("<id>"), integer = type("<int>"),
+            real = type("<float>"), scientific = type("<scientificN>");
+        String[] kinds = {null, id, integer, real, real, null, null, scientific, real, real};
+        for (int s = 0; s < STATE_NAMES.length; s++) {
+            addState(STATE_NAMES[s], kinds[s], null);
+        }
+        int plus = CLASS_NAMES.length + classChars.indexOf('+'),
+            minus = CLASS_NAMES.length + classChars.indexOf('-');
+        next.get(START)[LETTER] = ID;
+        next.get(START)[EXPONENT] = ID;
+        next.get(START)[DIGIT] = INT;
+        next.get(START)[DOT] = DOT_START;
+        for (int c : new int[] {LETTER, EXPONENT, IDPART, DIGIT}) {
+            next.get(ID)[c] = ID;
+        }
+        next.get(INT)[DIGIT] = INT;
+        next.get(INT)[DOT] = INT_DOT;
+        next.get(INT_DOT)[DIGIT] = FRACTION;
+        next.get(FRACTION)[DIGIT] = FRACTION;
+        next.get(FRACTION)[EXPONENT] = EXP_E;
+        next.get(EXP_E)[plus] = EXP_SIGN;
+        next.get(EXP_E)[minus] = EXP_SIGN;
+        next.get(EXP_E)[DIGIT] = EXP;
+        next.get(EXP_SIGN)[DIGIT] = EXP;
+        next.get(EXP)[DIGIT] = EXP;
+        next.get(DOT_START)[DIGIT] = DOT_FRACTION;
+        next.get(DOT_START)[DOT] = REJECT;       // e.g. .. or .5.
+        next.get(DOT_FRACTION)[DIGIT] = DOT_FRACTION;
+        next.get(DOT_FRACTION)[DOT] = REJECT;
+
+        HashMap<String,Integer> opStates = new HashMap<String,Integer>();
+        for (int i = 0; i < values.size(); i++) {
+            String op = values.get(i);
+            if (!isOperator(op)) {
+                continue;
+            }
+            int state = START;
+            for (int j = 1; j <= op.length(); j++) {
+                String prefix = op.substring(0, j);
+                Integer s = opStates.get(prefix);
+                if (s == null) {
+                    s = addState(prefix, null, null);
+                    opStates.put(prefix, s);
+                    next.get(state)[CLASS_NAMES.length + classChars.indexOf(op.charAt(j - 1))] = s;
+                }
+                state = s;
+            }
+            accept.set(state, "Tokens." + types.get(i));
+            text.set(state, op);
+        }
+        for (String prefix : opStates.keySet()) {  // the Lexer only backs up one character
+            if (accept.get(opStates.get(prefix)) == null) {
+                System.out.println("***operator prefix " + prefix + " is not a token***");
+                System.exit(1);
+            }
+        }
+        if (next.size() > Byte.MAX_VALUE) {
+            System.out.println("***too many DFA states***");
+            System.exit(1);
+        }
+    }
+
+/**
+ *  write the class TokenDFA
+ *  @param out is the file to write to
+*/
+    void write(PrintWriter out) {
+        buildClasses();
+        buildStates();
+        int classes = CLASS_NAMES.length + classChars.size();
+        out.println("package lexer;");
+        out.println(" ");
+        out.println("/**");
+        out.println(" *  This file is automatically generated<br>");
+        out.println(" *  it contains the character classes and the transition");
+        out.println(" *  tables of the DFA used by the Lexer to recognize ids,");
+        out.println(" *  numbers and operators, and the table used to tell the");
+        out.println(" *  reserved words from ids");
+        out.println("*/");
+        out.println("public class TokenDFA {");
+        for (int c = 0; c < CLASS_NAMES.length; c++) {
+            out.println("   public static final int " + CLASS_NAMES[c] + " = " + c + ";");
+        }
+        out.println("   public static final int CLASSES = " + classes + ";");
+        out.println("   public static final int START = " + START + ", REJECT = " + REJECT + ";");
+        out.println(" ");
+        out.println("   // class of each ASCII character");
+        out.println("   static final byte[] CHAR_CLASS = {");
+        for (int c = 0; c < 128; c += 16) {
+            out.print("     ");
+            for (int i = c; i < c + 16; i++) {
+                out.print(charClass[i] + ",");
+            }
+            out.println();
+        }
+        out.println("   };");
+        out.println(" ");
+        out.println("   // next state for state * CLASSES + class; START (0) when there is none");
+        out.println("   static final byte[] NEXT = {");
+        for (int s = 0; s < next.size(); s++) {
+            out.print("     ");
+            for (int c = 0; c < classes; c++) {
+                out.print(next.get(s)[c] + ",");
+            }
+            out.println("  // " + names.get(s));
+        }
+        out.println("   };");
+        out.println(" ");
+        out.println("   // token kind accepted in each state");
+        out.println("   static final Tokens[] ACCEPT = {");
+        for (int s = 0; s < next.size(); s++) {
+            out.println("     " + accept.get(s) + ",");
+        }
+        out.println("   };");
+        out.println(" ");
+        out.println("   // printstring of the operator accepted in each state");
+        out.println("   static final String[] TEXT = {");
+        for (int s = 0; s < next.size(); s++) {
+            out.println("     " + (text.get(s) == null ? "null" :
+                "\"" + text.get(s).replace("\\", "\\\\").replace("\"", "\\\"") + "\"") + ",");
+        }
+        out.println("   };");
+        out.println(" ");
+        out.println("   /**");
+        out.println("    * @param ch is the character to classify; characters that are");
+        out.println("    * not ASCII are classified by the Character methods");
+        out.println("    * @return the class of the character");
+        out.println("    */");
+        out.println("   public static int classOf(char ch) {");
+        out.println("     if (ch < 128) {");
+        out.println("       return CHAR_CLASS[ch];");
+        out.println("     }");
+        out.println("     if (Character.isJavaIdentifierStart(ch)) {");
+        out.println("       return LETTER;");
+        out.println("     }");
+        out.println("     if (Character.isDigit(ch)) {");
+        out.println("       return DIGIT;");
+        out.println("     }");
+        out.println("     if (Character.isJavaIdentifierPart(ch)) {");
+        out.println("       return IDPART;");
+        out.println("     }");
+        out.println("     return Character.isWhitespace(ch) ? SPACE : OTHER;");
+        out.println("   }");
+        out.println(" ");
+        new KeywordSetup(values).write(out);
+        out.println("}");
+    }
+}
@@ -0,0 +1,113 @@
+package lexer.setup;
+
+import java.util.*;
+import java.io.*;
+
+/**
+ *  KeywordSetup finds a perfect hash for the reserved words of the
+ *  <i>tokens</i> file and writes the lookup to <i>TokenDFA.java</i><br>
+ *  The hash only uses the length and the first and last characters of a
+ *  word: <i>(first*K1 + last*K2 + length*K3) &amp; MASK</i>; the constants
+ *  are searched for until no two reserved words share a slot, so telling
+ *  a reserved word from an id takes one probe and a compare
+*/
+class KeywordSetup {
+    private static final int MAX_SIZE = 1024, MAX_K = 64;
+
+    private ArrayList<String> keywords = new ArrayList<String>();
+    private String[] slots;  // reserved word in each slot of the table
+    private int k1, k2, k3, minLength = Integer.MAX_VALUE, maxLength = 0;
+
+/**
+ *  @param values are the token printstrings read from the tokens file
+*/
+    KeywordSetup(ArrayList<String> values) {
+        for (String value : values) {
+            if (!DFASetup.isOperator(value) && !value.matches("<\\w+>") && !keywords.contains(value)) {
+                keywords.add(value);
+                minLength = Math.min(minLength, value.length());
+                maxLength = Math.max(maxLength, value.length());
+            }
+        }
+    }
+
+    private static int hash(String word, int k1, int k2, int k3, int mask) {
+        return (word.charAt(0) * k1 + word.charAt(word.length() - 1) * k2 + word.length() * k3) & mask;
+    }
+
+/**
+ *  search for the smallest table (and then the smallest constants) with
+ *  no collisions
+*/
+    void build() {
+        int size = 1;
+        while (size < keywords.size()) {
+            size *= 2;
+        }
+        for (; size <= MAX_SIZE; size *= 2) {
+            for (k1 = 1; k1 < MAX_K; k1++) {
+                for (k2 = 0; k2 < MAX_K; k2++) {
+                    for (k3 = 0; k3 < MAX_K; k3++) {
+                        if (fill(size)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("***no perfect hash for the reserved words***");
+        System.exit(1);
+    }
+
+    private boolean fill(int size) {
+        slots = new String[size];
+        for (String word : keywords) {
+            int h = hash(word, k1, k2, k3, size - 1);
+            if (slots[h] != null) {
+                return false;
+            }
+            slots[h] = word;
+        }
+        return true;
+    }
+
+/**
+ *  write the reserved word table and keyword() into the class TokenDFA
+ *  @param out is the file to write to
+*/
+    void write(PrintWriter out) {
+        build();
+        out.println("   // reserved words by perfect hash; see keyword()");
+        out.println("   static final char[][] KEYWORDS = {");
+        for (String word : slots) {
+            out.println("     " + (word == null ? "null" : "\"" + word + "\".toCharArray()") + ",");
+        }
+        out.println("   };");
+        out.println(" ");
+        out.println("   /**");
+        out.println("    * @param chars holds the characters of an id");
+        out.println("    * @param start is the index of the first character");
+        out.println("    * @param end is the index just past the last character");
+        out.println("    * @return the slot of the reserved word in KEYWORDS, or -1 if");
+        out.println("    * the id is not a reserved word");
+        out.println("    */");
+        out.println("   public static int keyword(char[] chars, int start, int end) {");
+        out.println("     int length = end - start;");
+        out.println("     if (length < " + minLength + " || length > " + maxLength + ") {");
+        out.println("       return -1;");
+        out.println("     }");
+        out.println("     int h = (chars[start] * " + k1 + " + chars[end - 1] * " + k2 +
+            " + length * " + k3 + ") & " + (slots.length - 1) + ";");
+        out.println("     char[] word = KEYWORDS[h];");
+        out.println("     if (word == null || word.length != length) {");
+        out.println("       return -1;");
+        out.println("     }");
+        out.println("     for (int i = 0; i < length; i++) {");
+        out.println("       if (word[i] != chars[start + i]) {");
+        out.println("         return -1;");
+        out.println("       }");
+        out.println("     }");
+        out.println("     return h;");
+        out.println("   }");
+    }
+}
@@ -5,8 +5,8 @@ import java.io.*;
 
 /**
  *  TokenSetup class is used to read the tokens from file <i>tokens</i>
- *  and automatically build the 2 classes/files <i>TokenType.java</i> 
- *  and <i>Sym.java</i><br>
+ *  and automatically build the 3 classes/files <i>TokenType.java</i>,
+ *  <i>Tokens.java</i> and <i>TokenDFA.java</i><br>
  *  Therefore, if there is any change to the tokens then we only need to
  *  modify the file <i>tokens</i> and run this program again before using the
  *  compiler
@@ -15,7 +15,9 @@ public class TokenSetup {
     private String type, value; // token type/value for new token
     private int tokenCount = 0;
     private BufferedReader in;
-    private PrintWriter table, symbols; // files used for new classes
+    private PrintWriter table, symbols, dfa; // files used for new classes
+    private ArrayList<String> types = new ArrayList<String>(),   // all tokens read,
+        values = new ArrayList<String>();                        // in file order
 
     public static void main(String args[]) {
         new TokenSetup().initTokenClasses();
@@ -23,7 +25,7 @@ public class TokenSetup {
 
     /**
      *  Constructor for TokenSetup where it initializes the java files 
-     *  TokenType.java and Tokens.java to be written to
+     *  TokenType.java, Tokens.java and TokenDFA.java to be written to
      */
     TokenSetup() {
         try {
@@ -32,6 +34,7 @@ public class TokenSetup {
             in = new BufferedReader( new FileReader("lexer" + sep + "setup" + sep + "tokens"));
             table = new PrintWriter(new FileOutputStream("lexer" + sep + "TokenType.java"));
             symbols = new PrintWriter(new FileOutputStream("lexer" + sep + "Tokens.java"));
+            dfa = new PrintWriter(new FileOutputStream("lexer" + sep + "TokenDFA.java"));
         } catch (Exception e) {
         	System.out.println(e);
         }
@@ -62,7 +65,7 @@ public class TokenSetup {
     }
 
 /**
- *  initTokenClasses will create the 2 files
+ *  initTokenClasses will create the 3 files
 */
     public void initTokenClasses() {
         table.println("package lexer;");
@@ -70,11 +73,13 @@ public class TokenSetup {
         table.println("/**");
         table.println(" *  This file is automatically generated<br>");
         table.println(" *  it contains the table of mappings from token");
-        table.println(" *  constants to their Symbols");
+        table.println(" *  constants to their Symbols and the SymbolTable holding");
+        table.println(" *  them, which every compilation's SymbolTable is built on");
         table.println("*/");
         table.println("public class TokenType {");
         table.println("   public static java.util.HashMap<Tokens,Symbol> tokens = new java.util.HashMap<Tokens,Symbol>();");
-        table.println("   public TokenType() {");
+        table.println("   public static final SymbolTable symbols = new SymbolTable(null);  // reserved words and operators");
+        table.println("   static {");
         symbols.println("package lexer;");
         symbols.println(" ");
         symbols.println("/**");
@@ -90,9 +95,11 @@ public class TokenSetup {
             } catch (IOException e) {break;}
 
             String symType = "Tokens." + type;
+            types.add(type);
+            values.add(value);
 
             table.println("     tokens.put(" + symType +
-                ", Symbol.symbol(\"" + value + "\"," + symType + "));");
+                ", symbols.symbol(\"" + value + "\"," + symType + "));");
 
             if (tokenCount % 5 == 0) {
             	symbols.print(",\n    "+ type);
@@ -101,11 +108,15 @@ public class TokenSetup {
             }
         }
  
+        table.println("   }");
+        table.println("   public TokenType() {");
         table.println("   }");
         table.println("}");
         table.close();
         symbols.println("\n}");
         symbols.close();
+        new DFASetup(types, values).write(dfa);
+        dfa.close();
         try {
             in.close();
         } catch (Exception e) {}
@@ -0,0 +1,170 @@
+package parser;
+
+import java.util.ArrayList;
+import ast.*;
+import lexer.*;
+
+/**
+ *  IncrementalParser keeps the AST of a program that is being edited;
+ *  after an edit only the smallest block, declaration or statement that
+ *  holds the changed tokens is parsed again, and the rest of the tree is
+ *  kept as it was<br>
+ *  The tokens are kept by an IncrementalLexer and each node has the span
+ *  of tokens it was parsed from. The tree parsed again must begin and end
+ *  with tokens the edit left alone, and must end just where the old one
+ *  did (moved by the tokens added or removed); the Parser then reads the
+ *  same tokens on either side of it as a full parse would, so the trees
+ *  are the same. Otherwise the next tree out is tried, up to the whole
+ *  program. The trees after the edit are moved with AST.shift<br>
+ *  The nodes parsed again are numbered after all of the nodes created
+ *  before them, so the numbers are not those of a full parse
+*/
+public class IncrementalParser {
+    private final IncrementalLexer lexer;
+    private final CompilationContext context;  // numbers the nodes of every parse
+    private AST tree;      // the program; null if it has a syntax error
+    private AST reparsed;  // the tree parsed by the last edit
+
+/**
+ *  @param program is the source program
+*/
+    public IncrementalParser(CharSequence program) {
+        lexer = new IncrementalLexer(program);
+        context = new CompilationContext(lexer.getTokens().getSymbolTable());
+        parseAll();
+    }
+
+/**
+ *  Replace part of the source and parse it again
+ *  @param offset is the offset of the first char replaced
+ *  @param removed is the number of chars replaced
+ *  @param inserted holds the new chars
+ *  @return the AST for the program, or null if it has a syntax error
+*/
+    public AST edit(int offset, int removed, CharSequence inserted) {
+        lexer.edit(offset, removed, inserted);
+        if (tree == null || !reparse()) {
+            parseAll();
+        }
+        return tree;
+    }
+
+    private void parseAll() {
+        try {
+            tree = new Parser(lexer.getTokens(), context).rProgram();
+        } catch (SyntaxError e) {
+            e.print();
+            tree = null;
+        }
+        reparsed = tree;
+    }
+
+/**
+ *  parse the smallest tree holding the tokens changed by the last edit
+ *  @return false if no tree short of the program could be parsed again
+*/
+    private boolean reparse() {
+        int from = lexer.getChangeStart(), to = lexer.getChangeOldEnd();
+        int delta = lexer.getChangeEnd() - to;
+        // the path down to the smallest tree holding the old tokens from..to-1
+        ArrayList<AST> path = new ArrayList<AST>();
+        ArrayList<Integer> kids = new ArrayList<Integer>();  // index of each in its parent
+        AST t = tree;
+        int k = -1;
+        while (t != null) {
+            path.add(t);
+            kids.add(k);
+            k = damagedKid(t, from, to);
+            t = (k < 0) ? null : t.getKids().get(k);
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            AST parsed = parse(path.get(i), delta);
+            if (parsed != null) {
+                AST parent = path.get(i - 1);
+                parent.getKids().set(kids.get(i), parsed);
+                for (int j = i - 1; j >= 0; j--) {  // move what follows
+                    AST node = path.get(j);
+                    node.setSpan(node.getStart(), node.getEnd() + delta);
+                    ArrayList<AST> list = node.getKids();
+                    for (int n = kids.get(j + 1) + 1; n < list.size(); n++) {
+                        list.get(n).shift(delta);
+                    }
+                }
+                reparsed = parsed;
+                return true;
+            }
+        }
+        return false;
+    }
+
+/**
+ *  @return the index of the kid of t whose first and last tokens are
+ *  outside of from..to-1 and hold it between them, or -1 if none does
+*/
+    private static int damagedKid(AST t, int from, int to) {
+        ArrayList<AST> list = t.getKids();
+        int lo = 0, hi = list.size();  // find the last kid starting before from
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list.get(mid).getStart() < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0) {
+            return -1;
+        }
+        AST kid = list.get(lo - 1);
+        return (to < kid.getEnd()) ? lo - 1 : -1;
+    }
+
+/**
+ *  parse a block, declaration or statement again
+ *  @param old is the old tree
+ *  @param delta is the number of tokens the edit added
+ *  @return the new tree, or null if old is not a block, declaration or
+ *  statement or the new tree does not end where the old one did
+*/
+    private AST parse(AST old, int delta) {
+        Parser parser = new Parser(lexer.getTokens(), old.getStart(), context);
+        AST t;
+        try {
+            if (old instanceof BlockTree) {
+                t = parser.rBlock();
+            } else if (old instanceof DeclTree || old instanceof FunctionDeclTree) {
+                t = parser.rDecl();
+            } else if (old instanceof IfTree || old instanceof WhileTree || old instanceof ReturnTree ||
+                    old instanceof DoWhileTree || old instanceof AssignTree) {
+                t = parser.rStatement();
+            } else {
+                return null;
+            }
+        } catch (SyntaxError e) {
+            return null;
+        }
+        return (parser.getCursor() == old.getEnd() + delta) ? t : null;
+    }
+
+/**
+ *  @return the AST for the program, or null if it has a syntax error
+*/
+    public AST getTree() {
+        return tree;
+    }
+
+/**
+ *  @return the tree parsed by the last edit (the program if it was
+ *  parsed in full), or null if the program has a syntax error
+*/
+    public AST getReparsed() {
+        return reparsed;
+    }
+
+/**
+ *  @return the lexer holding the source and its tokens
+*/
+    public IncrementalLexer getLexer() {
+        return lexer;
+    }
+}
@@ -0,0 +1,193 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import ast.*;
+import lexer.*;
+
+/**
+ *  ParallelParser parses a program whose top-level functions are parsed
+ *  on several threads<br>
+ *  A Parser first parses the program without the bodies of its top-level
+ *  functions: each body is skipped by matching its braces in the token
+ *  stream and recorded with its token range. The bodies are then parsed
+ *  by Parsers of their own on a ForkJoinPool and added to their
+ *  functionDecls, so the AST is assembled in source order. Finally the
+ *  nodes are numbered again in the order a single Parser creates them,
+ *  so the tree is the same as that of Parser.execute()<br>
+ *  If there is any syntax error the program is parsed again by a single
+ *  Parser, which reports the first error as usual. As all of the tokens
+ *  are scanned before parsing, a lexical error is reported even when a
+ *  syntax error comes first
+*/
+public class ParallelParser {
+
+    static class Body extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final TokenBuffer tokens;
+        final AST function;     // the functionDecl the body belongs to
+        final int start, end;   // token range of the body, from its left brace
+        AST block;              // the body, once parsed
+        int count;              // number of nodes in the body
+        int first;              // number of the last node before the body
+        boolean failed;         // if true then the body has a syntax error
+
+        Body(TokenBuffer tokens, AST function, int start, int end) {
+            this.tokens = tokens;
+            this.function = function;
+            this.start = start;
+            this.end = end;
+        }
+
+        protected void compute() {
+            if (block == null) {
+                // numbered again below, so the body is numbered on its own
+                Parser parser = new Parser(tokens, start, new CompilationContext(tokens.getSymbolTable()));
+                try {
+                    block = parser.rBlock();
+                    failed = parser.getCursor() != end;
+                } catch (SyntaxError e) {
+                    failed = true;
+                }
+                if (!failed) {
+                    count = number(block, 0, null);
+                }
+            } else {
+                number(block, first, null);
+                function.addKid(block);
+            }
+        }
+    }
+
+/**
+ *  Parse a source file; it is scanned by ParallelLexer and parsed on the
+ *  common ForkJoinPool
+ *  @param sourceFile is the source file to parse
+ *  @return the AST for the source program
+ *  @throws Exception if the file cannot be read or has a syntax error
+*/
+    public static AST parse(String sourceFile) throws Exception {
+        return parse(ParallelLexer.lex(sourceFile), ForkJoinPool.commonPool());
+    }
+
+/**
+ *  Parse a program in parallel
+ *  @param tokens are the tokens of the program; they are all scanned
+ *  before the threads share them
+ *  @param pool runs the function bodies
+ *  @return the AST for the source program
+ *  @throws Exception if there is a syntax error
+*/
+    public static AST parse(TokenBuffer tokens, ForkJoinPool pool) throws Exception {
+        return parse(tokens, pool, new CompilationContext(tokens.getSymbolTable()));
+    }
+
+/**
+ *  Parse a program in parallel for one compilation
+ *  @param tokens are the tokens of the program; they are all scanned
+ *  before the threads share them
+ *  @param pool runs the function bodies
+ *  @param context is the compilation; the nodes are numbered after the
+ *  last node it has created
+ *  @return the AST for the source program
+ *  @throws Exception if there is a syntax error
+*/
+    public static AST parse(TokenBuffer tokens, ForkJoinPool pool, CompilationContext context) throws Exception {
+        tokens.size();
+        int before = context.getNodeCount();
+        Parser parser = new Parser(tokens, context);
+        final ArrayList<Body> bodies = new ArrayList<Body>();
+        parser.skipped = bodies;
+        AST program = null;
+        try {
+            program = parser.rProgram();
+        } catch (SyntaxError e) {
+        }
+        if (program != null) {
+            invokeAll(pool, bodies);
+            for (Body body : bodies) {
+                if (body.failed) {
+                    program = null;
+                    break;
+                }
+            }
+        }
+        if (program == null) {  // report the first error as a single Parser does
+            context.setNodeCount(before);
+            return new Parser(tokens, context).execute();
+        }
+        // number the program, leaving room for each body in turn
+        int next = number(program, before, bodies);
+        invokeAll(pool, bodies);
+        context.setNodeCount(next);
+        return program;
+    }
+
+    private static void invokeAll(ForkJoinPool pool, final ArrayList<Body> bodies) {
+        pool.invoke(new RecursiveAction() {
+            protected void compute() {
+                ForkJoinTask.invokeAll(bodies);
+            }
+        });
+        for (Body body : bodies) {
+            body.reinitialize();
+        }
+    }
+
+/**
+ *  Number the nodes of a tree in the order the Parser creates them: a
+ *  node is created once its first kidsBefore(node) kids are complete
+ *  @param t is the tree
+ *  @param last is the number of the last node created before the tree
+ *  @param bodies are the skipped function bodies in source order, or
+ *  null; each is given the numbers following its functionDecl
+ *  @return the number of the last node of the tree
+*/
+    static int number(AST t, int last, ArrayList<Body> bodies) {
+        AST[] nodes = new AST[64];
+        int[] next = new int[64];  // next kid of each node, from 1
+        int depth = 0, body = 0;
+        nodes[depth] = t;
+        next[depth++] = 1;
+        while (depth > 0) {
+            AST node = nodes[depth - 1];
+            int kid = next[depth - 1];
+            if (kid - 1 == Math.min(kidsBefore(node), node.kidCount())) {
+                node.setNodeNum(++last);
+            }
+            if (kid <= node.kidCount()) {
+                next[depth - 1]++;
+                if (depth == nodes.length) {
+                    nodes = java.util.Arrays.copyOf(nodes, 2 * depth);
+                    next = java.util.Arrays.copyOf(next, 2 * depth);
+                }
+                nodes[depth] = node.getKid(kid);
+                next[depth++] = 1;
+                continue;
+            }
+            depth--;
+            if (bodies != null && body < bodies.size() && bodies.get(body).function == node) {
+                bodies.get(body).first = last;
+                last += bodies.get(body++).count;
+            }
+        }
+        return last;
+    }
+
+/**
+ *  @return the number of kids the Parser completes before it creates
+ *  the node
+*/
+    static int kidsBefore(AST t) {
+        if (t instanceof DeclTree || t instanceof FunctionDeclTree) {
+            return 2;
+        }
+        if (t instanceof AssignTree || t instanceof RelOpTree || t instanceof AddOpTree ||
+                t instanceof MultOpTree || t instanceof CallTree) {
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,83 @@
+package parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import ast.*;
+
+/**
+ *  ParseCache keeps the ASTs of the programs it parses in a directory,
+ *  named by a hash of their source, so a program that has not changed
+ *  since it was last parsed is loaded (see ASTFile) instead of being
+ *  scanned and parsed again<br>
+ *  A program with a lexical or syntax error is not kept; its errors are
+ *  printed each time it is parsed. A file in the cache that cannot be
+ *  loaded (e.g. one of an older version or grammar) is replaced. Several
+ *  compilations may share a cache, as each file is written whole and then
+ *  moved into place. Writing the cache is best-effort: if a file cannot be
+ *  written (e.g. the directory is read-only or full) the AST is still
+ *  returned, it is just not kept
+*/
+public class ParseCache {
+    private final Path dir;
+
+/**
+ *  @param dir is the directory of the cache; it is created if need be
+ *  @throws IOException if the directory cannot be created
+*/
+    public ParseCache(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+/**
+ *  Parse a source file, or load its AST if it is in the cache
+ *  @param sourceFile is the source file
+ *  @return the AST, in an arena
+ *  @throws Exception if the source file cannot be read or has a syntax
+ *  error; failing to write the cache is not an error
+*/
+    public ASTArena parse(String sourceFile) throws Exception {
+        byte[] source = Files.readAllBytes(Paths.get(sourceFile));
+        Path cached = dir.resolve(key(source) + ".ast");
+        if (Files.exists(cached)) {
+            try {
+                return ASTFile.read(cached);
+            } catch (IOException e) {  // parse it again and replace it
+            }
+        }
+        Parser parser = new Parser(new ByteArrayInputStream(source));
+        ASTArena arena = new ASTArena(parser.getContext().getSymbolTable());
+        parser.execute(arena);
+        if (parser.getLex().getError() == null) {
+            Path temp = null;
+            try {
+                temp = Files.createTempFile(dir, "parse", ".tmp");
+                ASTFile.write(arena, temp);
+                Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {  // the program is not kept, but it was parsed
+            } finally {
+                if (temp != null) {
+                    try {
+                        Files.deleteIfExists(temp);
+                    } catch (IOException e) {
+                    }
+                }
+            }
+        }
+        return arena;
+    }
+
+/**
+ *  @return the hex SHA-256 of the source
+*/
+    private static String key(byte[] source) throws NoSuchAlgorithmException {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(source);
+        StringBuilder s = new StringBuilder();
+        for (byte b : hash) {
+            s.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return s.toString();
+    }
+}
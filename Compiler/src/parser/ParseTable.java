@@ -0,0 +1,135 @@
+package parser;
+ 
+import lexer.Tokens;
+ 
+/**
+ *  This file is automatically generated from parser/setup/grammar<br>
+ *  it contains, for each nonterminal whose alternatives are labelled,
+ *  the alternative predicted by each kind of token, indexed by
+ *  Tokens.ordinal(); index END stands for the end of the tokens
+*/
+public class ParseTable {
+    public static final int END = 38;
+ 
+    // DECLS -> D DECLS ==> decl | ==> end
+    public static final int DECLS_DECL = 0, DECLS_END = 1;
+    public static final byte[] DECLS = new byte[END + 1];
+ 
+    // STATEMENTS -> S STATEMENTS ==> statement | ==> end
+    public static final int STATEMENTS_STATEMENT = 0, STATEMENTS_END = 1;
+    public static final byte[] STATEMENTS = new byte[END + 1];
+ 
+    // DTAIL -> FUNHEAD BLOCK ==> functionDecl | ==> decl
+    public static final int DTAIL_FUNCTION_DECL = 0, DTAIL_DECL = 1;
+    public static final byte[] DTAIL = new byte[END + 1];
+ 
+    // TYPE -> 'int' ==> intType | 'float' ==> floatType | 'char' ==> charType | 'boolean' ==> boolType
+    public static final int TYPE_INT_TYPE = 0, TYPE_FLOAT_TYPE = 1, TYPE_CHAR_TYPE = 2, TYPE_BOOL_TYPE = 3;
+    public static final byte[] TYPE = new byte[END + 1];
+ 
+    // FORMALS -> ==> none | D MOREFORMALS ==> decl
+    public static final int FORMALS_NONE = 0, FORMALS_DECL = 1;
+    public static final byte[] FORMALS = new byte[END + 1];
+ 
+    // MOREFORMALS -> ',' D MOREFORMALS ==> more | ==> end
+    public static final int MOREFORMALS_MORE = 0, MOREFORMALS_END = 1;
+    public static final byte[] MOREFORMALS = new byte[END + 1];
+ 
+    // S -> 'if' E 'then' BLOCK ELSE ==> if | 'while' E BLOCK ==> while | 'return' E ==> return | BLOCK ==> block | 'do' BLOCK 'while' E ==> doWhile | NAME '=' E ==> assign
+    public static final int S_IF = 0, S_WHILE = 1, S_RETURN = 2, S_BLOCK = 3, S_DO_WHILE = 4, S_ASSIGN = 5;
+    public static final byte[] S = new byte[END + 1];
+ 
+    // ELSE -> 'else' BLOCK ==> else | ==> end
+    public static final int ELSE_ELSE = 0, ELSE_END = 1;
+    public static final byte[] ELSE = new byte[END + 1];
+ 
+    // ETAIL -> RELOP SE ==> relation | ==> end
+    public static final int ETAIL_RELATION = 0, ETAIL_END = 1;
+    public static final byte[] ETAIL = new byte[END + 1];
+ 
+    // SETAIL -> ADDOP T SETAIL ==> adding | ==> end
+    public static final int SETAIL_ADDING = 0, SETAIL_END = 1;
+    public static final byte[] SETAIL = new byte[END + 1];
+ 
+    // TTAIL -> MULOP F TTAIL ==> multiplying | ==> end
+    public static final int TTAIL_MULTIPLYING = 0, TTAIL_END = 1;
+    public static final byte[] TTAIL = new byte[END + 1];
+ 
+    // F -> '(' E ')' ==> paren | UNARYOP E ==> unary | <int> ==> int | <float> ==> float | <char> ==> char | <scientificN> ==> scientificN | NAME CALL ==> name
+    public static final int F_PAREN = 0, F_UNARY = 1, F_INT = 2, F_FLOAT = 3, F_CHAR = 4, F_SCIENTIFIC_N = 5, F_NAME = 6;
+    public static final byte[] F = new byte[END + 1];
+ 
+    // CALL -> '(' ARGS ')' ==> call | ==> end
+    public static final int CALL_CALL = 0, CALL_END = 1;
+    public static final byte[] CALL = new byte[END + 1];
+ 
+    // ARGS -> ==> none | E MOREARGS ==> args
+    public static final int ARGS_NONE = 0, ARGS_ARGS = 1;
+    public static final byte[] ARGS = new byte[END + 1];
+ 
+    // MOREARGS -> ',' E MOREARGS ==> more | ==> end
+    public static final int MOREARGS_MORE = 0, MOREARGS_END = 1;
+    public static final byte[] MOREARGS = new byte[END + 1];
+ 
+    static {
+        java.util.Arrays.fill(DECLS, (byte)DECLS_END);
+        DECLS[Tokens.Int.ordinal()] = DECLS_DECL;
+        DECLS[Tokens.BOOLean.ordinal()] = DECLS_DECL;
+        DECLS[Tokens.Float.ordinal()] = DECLS_DECL;
+        DECLS[Tokens.Char.ordinal()] = DECLS_DECL;
+        java.util.Arrays.fill(STATEMENTS, (byte)STATEMENTS_END);
+        STATEMENTS[Tokens.If.ordinal()] = STATEMENTS_STATEMENT;
+        STATEMENTS[Tokens.While.ordinal()] = STATEMENTS_STATEMENT;
+        STATEMENTS[Tokens.Return.ordinal()] = STATEMENTS_STATEMENT;
+        STATEMENTS[Tokens.Identifier.ordinal()] = STATEMENTS_STATEMENT;
+        STATEMENTS[Tokens.LeftBrace.ordinal()] = STATEMENTS_STATEMENT;
+        STATEMENTS[Tokens.Do.ordinal()] = STATEMENTS_STATEMENT;
+        java.util.Arrays.fill(DTAIL, (byte)DTAIL_DECL);
+        DTAIL[Tokens.LeftParen.ordinal()] = DTAIL_FUNCTION_DECL;
+        java.util.Arrays.fill(TYPE, (byte)TYPE_BOOL_TYPE);
+        TYPE[Tokens.Int.ordinal()] = TYPE_INT_TYPE;
+        TYPE[Tokens.Float.ordinal()] = TYPE_FLOAT_TYPE;
+        TYPE[Tokens.Char.ordinal()] = TYPE_CHAR_TYPE;
+        java.util.Arrays.fill(FORMALS, (byte)FORMALS_DECL);
+        FORMALS[Tokens.RightParen.ordinal()] = FORMALS_NONE;
+        java.util.Arrays.fill(MOREFORMALS, (byte)MOREFORMALS_END);
+        MOREFORMALS[Tokens.Comma.ordinal()] = MOREFORMALS_MORE;
+        java.util.Arrays.fill(S, (byte)S_ASSIGN);
+        S[Tokens.If.ordinal()] = S_IF;
+        S[Tokens.While.ordinal()] = S_WHILE;
+        S[Tokens.Return.ordinal()] = S_RETURN;
+        S[Tokens.LeftBrace.ordinal()] = S_BLOCK;
+        S[Tokens.Do.ordinal()] = S_DO_WHILE;
+        java.util.Arrays.fill(ELSE, (byte)ELSE_END);
+        ELSE[Tokens.Else.ordinal()] = ELSE_ELSE;
+        java.util.Arrays.fill(ETAIL, (byte)ETAIL_END);
+        ETAIL[Tokens.Equal.ordinal()] = ETAIL_RELATION;
+        ETAIL[Tokens.NotEqual.ordinal()] = ETAIL_RELATION;
+        ETAIL[Tokens.Less.ordinal()] = ETAIL_RELATION;
+        ETAIL[Tokens.LessEqual.ordinal()] = ETAIL_RELATION;
+        ETAIL[Tokens.Greater.ordinal()] = ETAIL_RELATION;
+        ETAIL[Tokens.GreaterEqual.ordinal()] = ETAIL_RELATION;
+        java.util.Arrays.fill(SETAIL, (byte)SETAIL_END);
+        SETAIL[Tokens.Plus.ordinal()] = SETAIL_ADDING;
+        SETAIL[Tokens.Minus.ordinal()] = SETAIL_ADDING;
+        SETAIL[Tokens.Or.ordinal()] = SETAIL_ADDING;
+        java.util.Arrays.fill(TTAIL, (byte)TTAIL_END);
+        TTAIL[Tokens.And.ordinal()] = TTAIL_MULTIPLYING;
+        TTAIL[Tokens.Multiply.ordinal()] = TTAIL_MULTIPLYING;
+        TTAIL[Tokens.Divide.ordinal()] = TTAIL_MULTIPLYING;
+        java.util.Arrays.fill(F, (byte)F_NAME);
+        F[Tokens.INTeger.ordinal()] = F_INT;
+        F[Tokens.LeftParen.ordinal()] = F_PAREN;
+        F[Tokens.Minus.ordinal()] = F_UNARY;
+        F[Tokens.FLOat.ordinal()] = F_FLOAT;
+        F[Tokens.CHar.ordinal()] = F_CHAR;
+        F[Tokens.ScientificN.ordinal()] = F_SCIENTIFIC_N;
+        F[Tokens.Not.ordinal()] = F_UNARY;
+        java.util.Arrays.fill(CALL, (byte)CALL_END);
+        CALL[Tokens.LeftParen.ordinal()] = CALL_CALL;
+        java.util.Arrays.fill(ARGS, (byte)ARGS_ARGS);
+        ARGS[Tokens.RightParen.ordinal()] = ARGS_NONE;
+        java.util.Arrays.fill(MOREARGS, (byte)MOREARGS_END);
+        MOREARGS[Tokens.Comma.ordinal()] = MOREARGS_MORE;
+    }
+}
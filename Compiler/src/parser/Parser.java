@@ -1,62 +1,30 @@
 package parser;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
 import lexer.*;
 import ast.*;
 
-/** 
- *  The Parser class performs recursive-descent parsing; as a
- *  by-product it will build the <b>Abstract Syntax Tree</b> representation
- *  for the source program<br>
- *  Following is the Grammar we are using:<br>
- *  <pre>
- *  PROGRAM -> program BLOCK ==> program
- *  
- *  BLOCK -> { D* S* }  ==> block
- *  
- *  D -> TYPE NAME                    ==> decl
- *    -> TYPE NAME FUNHEAD BLOCK      ==> functionDecl
- *  
- *  TYPE  ->  int
- *        ->  boolean
- *        ->  'char'
- *        ->  'float'
- *
- *  FUNHEAD  -> '(' (D list ',')? ')'  ==> formals<br>
- *
- *  S -> if E then BLOCK else BLOCK  ==> if
- *    -> while E BLOCK               ==> while
- *    -> return E                    ==> return
- *    -> BLOCK
- *    -> NAME = E                    ==> assign<br>
- *  
- *  E -> SE
- *    -> SE == SE   ==> =
- *    -> SE != SE   ==> !=
- *    -> SE <  SE   ==> <
- *    -> SE <= SE   ==> <=
- *  
- *  SE  ->  T
- *      ->  SE + T  ==> +
- *      ->  SE - T  ==> -
- *      ->  SE | T  ==> or
- *  
- *  T  -> F
- *     -> T * F  ==> *
- *     -> T / F  ==> /
- *     -> T & F  ==> and
- *  
- *  F  -> ( E )
- *     -> NAME
- *     -> <int>
- *     -> NAME '(' (E list ',')? ')' ==> call<br>
- *  
- *  NAME  -> <id>
- *  </pre>
+/**
+ *  The Parser class is a table-driven LL(1) parser; as a by-product it
+ *  builds the <b>Abstract Syntax Tree</b> representation for the source
+ *  program<br>
+ *  The grammar of X is kept only in <i>parser/setup/grammar</i>, from
+ *  which parser.setup.ParserSetup builds the LL(1) prediction tables of
+ *  ParseTable. Each choice between the alternatives of a rule is one
+ *  lookup in those tables (see predict), and the rules being parsed are
+ *  kept on explicit stacks rather than the Java stack (see rNested and
+ *  rExpr(int)), so deeply nested programs only need heap. The operators
+ *  of E, SE and T are joined by their binding powers, which are taken
+ *  from the same tables (see bindingPowers)
 */
 public class Parser {
-    private Token currentToken;
+    private TokenBuffer tokens;
+    private int cursor;   // index in tokens of the current token
     private Lexer lex;
+    private final CompilationContext context;  // numbers the nodes; keeps the errors
     private EnumSet<Tokens> relationalOps = 
     	EnumSet.of(Tokens.Equal,Tokens.NotEqual,Tokens.Less,Tokens.LessEqual,Tokens.Greater,Tokens.GreaterEqual); 
     private EnumSet<Tokens> addingOps = 
@@ -65,6 +33,44 @@ public class Parser {
     	EnumSet.of(Tokens.Multiply,Tokens.Divide,Tokens.And);
     private EnumSet<Tokens> unaryOps = 
     	EnumSet.of(Tokens.Not,Tokens.Minus);
+    // binding powers of the binary operators, from loosest to tightest
+    private static final int RELATION = 1, ADDING = 2, MULTIPLYING = 3, FACTOR = 4;
+    private final int[] bindingPower = bindingPowers();  // by token ordinal
+    // stack of the expressions rExpr(int) has started but not finished; for
+    // each its kind (what completes it), the operator or call it is a kid
+    // of, the least power of an operator that may join it, whether it
+    // has its relational operator and its first token
+    private static final int TOP = 0, PAREN = 1, UNARY = 2, OPERAND = 3, ARG = 4;
+    private int[] frameKinds = new int[16];
+    private AST[] frameTrees = new AST[16];
+    private int[] framePowers = new int[16];
+    private boolean[] frameRelated = new boolean[16];
+    private int[] frameStarts = new int[16];  // first token of each
+    private int depth = 0;
+    // stack of the blocks, formals, functionDecls and statements holding
+    // blocks that have been opened but not closed, with the state of each
+    private static final int BLOCK_DECLS = 0, BLOCK_STATEMENTS = 1, FORMALS_FIRST = 2,
+        FORMALS_NEXT = 3, FUNCTION_HEAD = 4, FUNCTION_BODY = 5, IF_THEN = 6, IF_ELSE = 7,
+        WHILE_BODY = 8, DO_BODY = 9;
+    private int[] nestStates = new int[16];
+    private AST[] nestTrees = new AST[16];
+    private int nesting = 0;
+    // if not null then the bodies of top-level functions are not parsed
+    // but recorded here with their token ranges (see ParallelParser)
+    ArrayList<ParallelParser.Body> skipped;
+    // if true then function bodies are not parsed until their kids are
+    // needed (see LazyBlockTree)
+    private boolean lazyBodies;
+    // if not null then the nodes are sent to it as they are parsed rather
+    // than built into a tree (see execute(ParseListener))
+    private ParseListener listener;
+    private AST closed;            // the construct closed last, when streaming
+    private AST[] pending = new AST[16];  // nodes being streamed (see stream)
+    private boolean[] leaving = new boolean[16];
+    // if true then parsing goes on after a syntax error in a block (see
+    // execute); the errors found are reported to the context
+    private boolean recovering;
+    private int synced = -1;  // the token parsing went on from after the last error
     		
 /**
  *  Construct a new Parser; 
@@ -72,9 +78,31 @@ public class Parser {
  *  @exception Exception - thrown for any problems at startup (e.g. I/O)
 */
     public Parser(String sourceProgram) throws Exception {
+        this(sourceProgram, false);
+    }
+
+/**
+ *  Construct a new Parser; 
+ *  @param sourceProgram - source file name
+ *  @param echo - if true then the source lines are printed as they are read
+ *  @exception Exception - thrown for any problems at startup (e.g. I/O)
+*/
+    public Parser(String sourceProgram, boolean echo) throws Exception {
+        this(sourceProgram, echo, new CompilationContext());
+    }
+
+/**
+ *  Construct a new Parser for one compilation
+ *  @param sourceProgram - source file name
+ *  @param echo - if true then the source lines are printed as they are read
+ *  @param context - the compilation; its symbols are entered by the Lexer
+ *  @exception Exception - thrown for any problems at startup (e.g. I/O)
+*/
+    public Parser(String sourceProgram, boolean echo, CompilationContext context) throws Exception {
+        this.context = context;
         try {
-            lex = new Lexer(sourceProgram);
-            scan();
+            lex = new Lexer(new SourceReader(sourceProgram, echo), context);
+            tokens = new TokenBuffer(lex);
         }
          catch (Exception e) {
             System.out.println("********exception*******"+e.toString());
@@ -82,20 +110,186 @@ public class Parser {
          };
     }
     
+/**
+ *  Construct a new Parser over any SourceReader, e.g. one holding the
+ *  program in memory (see SourceReader.fromText)
+ *  @param source - the source program
+*/
+    public Parser(SourceReader source) {
+        this(source, new CompilationContext());
+    }
+
+/**
+ *  Construct a new Parser over any SourceReader for one compilation
+ *  @param source - the source program
+ *  @param context - the compilation; its symbols are entered by the Lexer
+*/
+    public Parser(SourceReader source, CompilationContext context) {
+        this.context = context;
+        lex = new Lexer(source, context);
+        tokens = new TokenBuffer(lex);
+    }
+
+/**
+ *  Construct a new Parser that streams the source from a Reader
+ *  @param in - the Reader holding the source program
+*/
+    public Parser(Reader in) {
+        this(new SourceReader(in, false));
+    }
+
+/**
+ *  Construct a new Parser that streams the source from an InputStream
+ *  @param in - the stream holding the source program
+*/
+    public Parser(InputStream in) {
+        this(new SourceReader(in, false));
+    }
+
+/**
+ *  Construct a new Parser that streams the source from a channel
+ *  @param in - the channel holding the source program
+*/
+    public Parser(ReadableByteChannel in) {
+        this(new SourceReader(in, false));
+    }
+
+/**
+ *  Construct a new Parser over tokens that have already been scanned
+ *  (or will be scanned as the buffer is read)
+ *  @param tokens - the tokens of the source program
+*/
+    public Parser(TokenBuffer tokens) {
+        this(tokens, new CompilationContext(tokens.getSymbolTable()));
+    }
+
+/**
+ *  Construct a new Parser over tokens for one compilation
+ *  @param tokens - the tokens of the source program; their symbols must
+ *  be in the context's SymbolTable
+ *  @param context - the compilation
+*/
+    public Parser(TokenBuffer tokens, CompilationContext context) {
+        this(tokens, 0, context);
+    }
+
+/**
+ *  Construct a new Parser that starts in the middle of the tokens
+ *  @param tokens - the tokens of the source program
+ *  @param cursor - the index of the first token to parse
+ *  @param context - the compilation
+*/
+    Parser(TokenBuffer tokens, int cursor, CompilationContext context) {
+        this.tokens = tokens;
+        this.cursor = cursor;
+        this.context = context;
+    }
+
+/**
+ *  @return the index of the next token to parse
+*/
+    int getCursor() {
+        return cursor;
+    }
+
+/**
+ *  Construct a Parser whose Lexer scans the source on a thread of its own
+ *  while the program is parsed (see TokenPipe); it is stopped when the
+ *  parse is executed
+ *  @param sourceProgram - source file name
+ *  @return the Parser
+ *  @exception Exception - thrown for any problems at startup (e.g. I/O)
+*/
+    public static Parser pipelined(String sourceProgram) throws Exception {
+        CompilationContext context = new CompilationContext(new ConcurrentSymbolTable());
+        Lexer lex = new Lexer(new SourceReader(sourceProgram), context);
+        return new Parser(TokenPipe.start(lex), context);
+    }
+    
     public Lexer getLex() { return lex; }
+
+    public CompilationContext getContext() { return context; }
+
+/**
+ *  Pre-parse only the declarations: the body of each function is skipped
+ *  by matching its braces and parsed the first time its kids are needed,
+ *  when a syntax error in it is reported
+ *  @param lazy - if true then function bodies are parsed lazily
+*/
+    public void setLazyBodies(boolean lazy) {
+        lazyBodies = lazy;
+    }
     
 /**
- *  Execute the parse command
+ *  Execute the parse command<br>
+ *  After a syntax error in a block the tokens are skipped up to the next
+ *  declaration, statement or right brace and parsing goes on from there;
+ *  the constructs left open inside the block are dropped. An error found
+ *  before any token has been parsed since then is not reported. So one
+ *  parse finds all of the errors in a program; they are reported to the
+ *  context and printed at the end
  *  @return the AST for the source program
- *  @exception Exception - pass on any type of exception raised
+ *  @exception Exception - pass on any type of exception raised; a
+ *  SyntaxError for the first error if there were any
 */
     public AST execute() throws Exception {
+        int reported = context.getDiagnostics().size();
+        recovering = true;
+        AST t = null;
         try {
-            return rProgram();
-        }catch (SyntaxError e) {
-            e.print();
-            throw e;
+            t = rProgram();
+        } catch (SyntaxError e) {
+            report(e);
+        } finally {
+            recovering = false;
+            tokens.cancel();
         }
+        checkDiagnostics(reported);
+        return t;
+    }
+
+/**
+ *  print the syntax errors found by this parse, if any
+ *  @param reported is the number of errors in the context before it
+ *  @exception SyntaxError - for the first error
+*/
+    private void checkDiagnostics(int reported) throws SyntaxError {
+        List<Diagnostic> found = context.getDiagnostics();
+        if (found.size() == reported) {
+            return;
+        }
+        found = found.subList(reported, found.size());
+        for (Diagnostic d : found) {
+            d.print();
+        }
+        throw new SyntaxError(found.get(0));
+    }
+
+/**
+ *  Execute the parse command, sending the nodes of the program to the
+ *  listener as they are parsed instead of building the AST; only the
+ *  constructs that are open, the tree being parsed (a declaration,
+ *  statement or expression) and the tokens after it are kept, so memory
+ *  depends on how deeply the program nests rather than on its size.
+ *  Function bodies are not parsed lazily in this mode
+ *  @param listener receives the nodes of the program
+ *  @exception Exception - pass on any type of exception raised
+*/
+    public void execute(ParseListener listener) throws Exception {
+        int reported = context.getDiagnostics().size();
+        this.listener = listener;
+        recovering = true;
+        try {
+            rProgram();
+        } catch (SyntaxError e) {
+            report(e);
+        } finally {
+            this.listener = null;
+            closed = null;
+            recovering = false;
+            tokens.cancel();
+        }
+        checkDiagnostics(reported);
     }
     
 /** <pre>
@@ -107,9 +301,18 @@ public class Parser {
     public AST rProgram() throws SyntaxError {
         // note that rProgram actually returns a ProgramTree; we use the 
         // principle of substitutability to indicate it returns an AST
-       AST t = new ProgramTree();
+       AST t = node(new ProgramTree());
+        int start = cursor;
         expect(Tokens.Program);
+        if (listener != null) {
+            listener.enter(t);
+            rBlock();
+            t.setSpan(start, cursor);
+            listener.leave(t);
+            return t;
+        }
         t.addKid(rBlock());
+        t.setSpan(start, cursor);
         return t;
     }
 
@@ -121,17 +324,9 @@ public class Parser {
  *         e.g. an expected left brace isn't found
 */
     public AST rBlock() throws SyntaxError {
-        expect(Tokens.LeftBrace);
-        AST t = new BlockTree();
-        while (startingDecl()) { // get decls
-        	t.addKid(rDecl());
-        }
-        
-        while (startingStatement()) { // get statements
-        	t.addKid(rStatement());
-        }
-        expect(Tokens.RightBrace);
-        return t;
+        int base = nesting;
+        openBlock();
+        return rNested(base, null);
     }
     
     /**
@@ -139,22 +334,14 @@ public class Parser {
      * @return True if token is a type, false otherwise
      */
     boolean startingDecl() {
-        if (isNextTok(Tokens.Int) || isNextTok(Tokens.BOOLean) || isNextTok(Tokens.Float) 
-        		|| isNextTok(Tokens.Char)) {
-            return true;
-        }
-        return false;
+        return predict(ParseTable.DECLS) == ParseTable.DECLS_DECL;
     }
 
     /** Checks to see if token is a starting statement such as "if", "while", etc.
      * @return True if token is a starting statement, false otherwise
      */
     boolean startingStatement() {
-        if (isNextTok(Tokens.If) || isNextTok(Tokens.While) || isNextTok(Tokens.Return)
-                || isNextTok(Tokens.Do) || isNextTok(Tokens.LeftBrace) || isNextTok(Tokens.Identifier)) {
-            return true;
-        }
-        return false;
+        return predict(ParseTable.STATEMENTS) == ParseTable.STATEMENTS_STATEMENT;
     }
 
 
@@ -166,17 +353,8 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rDecl() throws SyntaxError {
-        AST t,t1;
-        t = rType();
-        t1 = rName();
-        if (isNextTok(Tokens.LeftParen)) { // function
-            t = (new FunctionDeclTree()).addKid(t).addKid(t1);
-            t.addKid(rFunHead());
-            t.addKid(rBlock());
-            return t;
-        }
-        t = (new DeclTree()).addKid(t).addKid(t1);
-        return t;
+        int base = nesting;
+        return rNested(base, beginDecl());
     }
 
 /** <pre>
@@ -190,19 +368,25 @@ public class Parser {
 */
     public AST rType() throws SyntaxError {
         AST t;
-        if (isNextTok(Tokens.Int)) {
-            t = new IntTypeTree();
+        int start = cursor;
+        switch (predict(ParseTable.TYPE)) {
+        case ParseTable.TYPE_INT_TYPE:
+            t = node(new IntTypeTree());
             scan();
-        } else if (isNextTok(Tokens.Float)) {
-        	t = new FloatTypeTree();
+            break;
+        case ParseTable.TYPE_FLOAT_TYPE:
+        	t = node(new FloatTypeTree());
         	scan();
-        } else if (isNextTok(Tokens.Char)) {
-        	t = new CharTypeTree();
+        	break;
+        case ParseTable.TYPE_CHAR_TYPE:
+        	t = node(new CharTypeTree());
         	scan(); 
-        } else { 
+        	break;
+        default:
             expect(Tokens.BOOLean);
-            t = new BoolTypeTree();
+            t = node(new BoolTypeTree());
         }
+        t.setSpan(start, cursor);
         return t;
     }
 
@@ -215,20 +399,9 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rFunHead() throws SyntaxError {
-        AST t = new FormalsTree();
-        expect(Tokens.LeftParen);
-        if (!isNextTok(Tokens.RightParen)) {
-            do {
-                t.addKid(rDecl());
-                if (isNextTok(Tokens.Comma)) {
-                    scan();
-                } else {
-                    break;
-                }
-            } while (true);
-        }
-        expect(Tokens.RightParen);
-        return t;
+        int base = nesting;
+        openFormals();
+        return rNested(base, null);
     }
 
 /** <pre>
@@ -243,52 +416,435 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rStatement() throws SyntaxError {
+        int base = nesting;
+        return rNested(base, beginStatement());
+    }
+
+/**
+ *  Finish the blocks, formals and statements that have been opened on
+ *  the nesting stack, innermost first; each construct that holds a block
+ *  or formals is pushed with the state it is in, and the block or
+ *  formals on top of it is parsed next, so there is no recursion however
+ *  deeply programs nest<br>
+ *  The trees (and the order their nodes are created in) are those of the
+ *  rules above
+ *  @param base is the depth of the stack when parsing began; the tree
+ *  completed at that depth is returned
+ *  @param t is a tree that has already been completed, or null
+ *  @return the tree completed at depth base
+ *  @exception SyntaxError - thrown for any syntax error
+*/
+    private AST rNested(int base, AST t) throws SyntaxError {
+        while (true) {
+            try {
+                return nest(base, t);
+            } catch (SyntaxError e) {
+                t = recover(base, e);
+            }
+        }
+    }
+
+/**
+ *  Finish the constructs on the nesting stack (see rNested)
+ *  @param base is the depth of the stack when parsing began
+ *  @param t is a tree that has already been completed, or null
+ *  @return the tree completed at depth base
+ *  @exception SyntaxError - thrown for any syntax error
+*/
+    private AST nest(int base, AST t) throws SyntaxError {
+        while (true) {
+            if (t != null) {  // hand t to the innermost construct
+                if (nesting == base) {
+                    return t;
+                }
+                int top = nesting - 1;
+                AST tree = nestTrees[top];
+                add(tree, t);
+                t = null;
+                switch (nestStates[top]) {
+                case FUNCTION_HEAD:
+                    nestStates[top] = FUNCTION_BODY;
+                    boolean parallel = skipped != null && top == 1;  // a top-level function
+                    int bodyEnd = (parallel || lazyBodies && listener == null) ? bodyEnd() : -1;
+                    if (bodyEnd < 0) {
+                        openBlock();
+                    } else if (parallel) {
+                        skipped.add(new ParallelParser.Body(tokens, tree, cursor, bodyEnd));
+                        cursor = bodyEnd;
+                        t = close();
+                    } else {
+                        t = lazyBody(cursor, bodyEnd);
+                        cursor = bodyEnd;
+                    }
+                    break;
+                case IF_THEN:
+                    if (predict(ParseTable.ELSE) == ParseTable.ELSE_ELSE) {
+                        expect(Tokens.Else);
+                        nestStates[top] = IF_ELSE;
+                        openBlock();
+                    } else {
+                        t = close();
+                    }
+                    break;
+                case DO_BODY:
+                    expect(Tokens.While);
+                    add(tree, rExpr());
+                    t = close();
+                    break;
+                case FUNCTION_BODY:
+                case IF_ELSE:
+                case WHILE_BODY:
+                    t = close();
+                    break;
+                }
+                continue;
+            }
+            int top = nesting - 1;  // a block or formals wanting its next kid
+            if (listener != null) {  // the tokens parsed are not needed again
+                tokens.release(cursor);
+            }
+            switch (nestStates[top]) {
+            case BLOCK_DECLS:
+                if (startingDecl()) { // get decls
+                    t = beginDecl();
+                } else {
+                    nestStates[top] = BLOCK_STATEMENTS;
+                }
+                break;
+            case BLOCK_STATEMENTS:
+                if (startingStatement()) { // get statements
+                    t = beginStatement();
+                } else {
+                    expect(Tokens.RightBrace);
+                    t = close();
+                }
+                break;
+            case FORMALS_FIRST:
+                if (predict(ParseTable.FORMALS) == ParseTable.FORMALS_NONE) {
+                    expect(Tokens.RightParen);
+                    t = close();
+                } else {
+                    nestStates[top] = FORMALS_NEXT;
+                    t = beginDecl();
+                }
+                break;
+            case FORMALS_NEXT:
+                if (predict(ParseTable.MOREFORMALS) == ParseTable.MOREFORMALS_MORE) {
+                    scan();
+                    t = beginDecl();
+                } else {
+                    expect(Tokens.RightParen);
+                    t = close();
+                }
+                break;
+            }
+        }
+    }
+
+/**
+ *  number a node just created
+ *  @param t is the node
+ *  @return t
+*/
+    private AST node(AST t) {
+        t.setNodeNum(context.nextNodeNum());
+        return t;
+    }
+
+/**
+ *  Recover from a syntax error inside a block: report it, drop the
+ *  constructs opened inside the innermost block and skip to a token
+ *  the block can go on from (see execute)
+ *  @param base is the depth of the nesting stack when parsing began
+ *  @param e is the error
+ *  @return null, as nothing has been completed
+ *  @exception SyntaxError - e again if we are not recovering from errors,
+ *  there is no block to go on with or the source has ended
+*/
+    private AST recover(int base, SyntaxError e) throws SyntaxError {
+        int block = nesting - 1;
+        while (block >= base && nestStates[block] != BLOCK_DECLS && nestStates[block] != BLOCK_STATEMENTS) {
+            block--;
+        }
+        if (!recovering || block < base) {
+            throw e;
+        }
+        report(e);
+        while (nesting > block + 1) {
+            if (listener != null) {  // the nodes sent need their leave
+                close();
+            } else {
+                nestTrees[--nesting] = null;
+            }
+        }
+        depth = 0;  // no expression is being parsed
+        if (cursor == synced) {  // no token was parsed; make sure we move on
+            scan();
+        }
+        Tokens kind;
+        while ((kind = tokens.kind(cursor)) != null && kind != Tokens.RightBrace &&
+                !startingDecl() && !startingStatement()) {
+            scan();
+        }
+        if (kind == null) {
+            throw e;
+        }
+        nestStates[block] = startingDecl() ? BLOCK_DECLS : BLOCK_STATEMENTS;
+        synced = cursor;
+        return null;
+    }
+
+/**
+ *  record a syntax error unless it was found where parsing went on from
+ *  after the last one, where it is most likely caused by that one
+*/
+    private void report(SyntaxError e) {
+        if (!e.reported && cursor != synced) {
+            context.report(e.getDiagnostic());
+        }
+        e.reported = true;
+    }
+
+/**
+ *  Begin a decl (see rDecl)
+ *  @return the decl tree, or null if a functionDecl was opened
+ *  @exception SyntaxError - thrown for any syntax error
+*/
+    private AST beginDecl() throws SyntaxError {
+        AST t,t1;
+        int start = cursor;
+        t = rType();
+        t1 = rName();
+        if (predict(ParseTable.DTAIL) == ParseTable.DTAIL_FUNCTION_DECL) { // function
+            t = node(new FunctionDeclTree()).addKid(t).addKid(t1);
+            t.setSpan(start, -1);
+            open(FUNCTION_HEAD, t);
+            openFormals();
+            return null;
+        }
+        t = node(new DeclTree()).addKid(t).addKid(t1);
+        t.setSpan(start, cursor);
+        return t;
+    }
+
+/**
+ *  Begin a statement (see rStatement)
+ *  @return the statement tree, or null if a statement holding a block
+ *  was opened
+ *  @exception SyntaxError - thrown for any syntax error
+*/
+    private AST beginStatement() throws SyntaxError {
         AST t;
-        if (isNextTok(Tokens.If)) {
+        int start = cursor;
+        switch (predict(ParseTable.S)) {
+        case ParseTable.S_IF:
             scan();
-            t = new IfTree();
+            t = node(new IfTree());
+            t.setSpan(start, -1);
             t.addKid(rExpr());
             expect(Tokens.Then);
-            t.addKid(rBlock());
-	        if (isNextTok(Tokens.Else)) {
-	        	expect(Tokens.Else);
-	        	t.addKid(rBlock());
-	        }
-            return t;
-        }
-        if (isNextTok(Tokens.While)) {
+            open(IF_THEN, t);
+            openBlock();
+            return null;
+        case ParseTable.S_WHILE:
             scan();
-            t = new WhileTree();
+            t = node(new WhileTree());
+            t.setSpan(start, -1);
             t.addKid(rExpr());
-            t.addKid(rBlock());
-            return t;
-        }
-        if (isNextTok(Tokens.Return)) {
+            open(WHILE_BODY, t);
+            openBlock();
+            return null;
+        case ParseTable.S_RETURN:
             scan();
-            t = new ReturnTree();
+            t = node(new ReturnTree());
             t.addKid(rExpr());
+            t.setSpan(start, cursor);
+            return t;
+        case ParseTable.S_BLOCK:
+            openBlock();
+            return null;
+        case ParseTable.S_DO_WHILE:
+        	scan(); 
+        	t = node(new DoWhileTree());
+        	t.setSpan(start, -1);
+        	open(DO_BODY, t);
+        	openBlock();
+        	return null;
+        default:
+            t = rName();
+            t = node(new AssignTree()).addKid(t);
+            expect(Tokens.Assign);
+            t.addKid(rExpr());
+            t.setSpan(start, cursor);
             return t;
         }
-        if (isNextTok(Tokens.LeftBrace)) {
-            return rBlock();
+    }
+
+    /**
+     * Opens a block: scans its left brace and pushes its tree
+     * @throws SyntaxError if the left brace is missing
+     */
+    private void openBlock() throws SyntaxError {
+        int start = cursor;
+        expect(Tokens.LeftBrace);
+        AST t = node(new BlockTree());
+        t.setSpan(start, -1);
+        open(BLOCK_DECLS, t);
+    }
+
+    /**
+     * Opens formals: pushes their tree and scans the left paren
+     * @throws SyntaxError if the left paren is missing
+     */
+    private void openFormals() throws SyntaxError {
+        AST t = node(new FormalsTree());
+        t.setSpan(cursor, -1);
+        open(FORMALS_FIRST, t);
+        expect(Tokens.LeftParen);
+    }
+
+    /**
+     * Matches the braces of a function body
+     * @return the index just past the right brace matching the left brace
+     * at the cursor, or -1 if the body does not start with a brace or it
+     * is never closed; it is then parsed as usual
+     */
+    private int bodyEnd() {
+        if (!isNextTok(Tokens.LeftBrace)) {
+            return -1;
         }
-        
-        if (isNextTok(Tokens.Do)) {   
-        	scan(); 
-        	t = new DoWhileTree();
-        	t.addKid(rBlock());
-        	expect(Tokens.While);
-        	t.addKid(rExpr());
-        	return t;
+        int open = 0;
+        for (int i = cursor; tokens.has(i); i++) {
+            Tokens kind = tokens.kind(i);
+            if (kind == Tokens.LeftBrace) {
+                open++;
+            } else if (kind == Tokens.RightBrace && --open == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates the lazy body of a function; it is parsed by a Parser of
+     * its own, which parses the bodies of nested functions lazily too
+     * @param start is the index of the body's left brace
+     * @param end is the index just past its right brace
+     * @return the body tree
+     */
+    private AST lazyBody(int start, int end) {
+        final TokenBuffer tokens = this.tokens;
+        return node(new LazyBlockTree(start, end, () -> {
+            Parser parser = new Parser(tokens, start, context);
+            parser.lazyBodies = true;
+            try {
+                return parser.rBlock();
+            } catch (SyntaxError e) {
+                e.print();
+                throw new IllegalStateException("syntax error in the function body at token " + start, e);
+            }
+        }));
+    }
+
+    /**
+     * Pushes a construct on the nesting stack
+     * @param state is the state it is in
+     * @param tree is its tree
+     */
+    private void open(int state, AST tree) {
+        if (nesting == nestStates.length) {
+            nestStates = Arrays.copyOf(nestStates, 2 * nesting);
+            nestTrees = Arrays.copyOf(nestTrees, 2 * nesting);
+        }
+        nestStates[nesting] = state;
+        nestTrees[nesting] = tree;
+        nesting++;
+        if (listener != null) {
+            stream(tree, false);
+        }
+    }
+
+    /**
+     * Pops the innermost construct off the nesting stack
+     * @return its tree, which is complete
+     */
+    private AST close() {
+        nesting--;
+        AST t = nestTrees[nesting];
+        nestTrees[nesting] = null;
+        t.setSpan(t.getStart(), cursor);
+        if (listener != null) {
+            listener.leave(t);
+            closed = t;
         }
-        
-        t = rName();
-        t = (new AssignTree()).addKid(t);
-        expect(Tokens.Assign);
-        t.addKid(rExpr());
         return t;
     }
 
+    /**
+     * Adds a completed kid to a construct on the nesting stack; when nodes
+     * are streamed the kid is sent to the listener instead, unless it is
+     * the construct closed last, which has been sent already
+     * @param tree is the construct
+     * @param kid is its next kid
+     */
+    private void add(AST tree, AST kid) {
+        if (listener == null) {
+            tree.addKid(kid);
+        } else if (kid != closed) {
+            stream(kid, true);
+        }
+    }
+
+    /**
+     * Sends a tree to the listener in the order a walk visits it, taking
+     * each node's kids off before it is sent
+     * @param t is the tree
+     * @param complete if false then the leave of t is not sent; it is
+     * sent when t is closed
+     */
+    private void stream(AST t, boolean complete) {
+        int size = 0;
+        pending[size] = t;
+        leaving[size++] = false;
+        while (size > 0) {
+            AST node = pending[--size];
+            pending[size] = null;
+            if (leaving[size]) {
+                listener.leave(node);
+                continue;
+            }
+            if (isLiteral(node)) {
+                listener.literal(node);
+                continue;
+            }
+            ArrayList<AST> kids = node.getKids();
+            if (size + kids.size() + 1 > pending.length) {
+                int length = 2 * (size + kids.size() + 1);
+                pending = Arrays.copyOf(pending, length);
+                leaving = Arrays.copyOf(leaving, length);
+            }
+            if (complete || node != t) {
+                pending[size] = node;
+                leaving[size++] = true;
+            }
+            for (int i = kids.size() - 1; i >= 0; i--) {
+                pending[size] = kids.get(i);
+                leaving[size++] = false;
+            }
+            kids.clear();
+            listener.enter(node);
+        }
+    }
+
+    /**
+     * @return true if the node never has kids (see ParseListener.literal)
+     */
+    private static boolean isLiteral(AST t) {
+        return t instanceof IdTree || t instanceof IntTree || t instanceof FloatTree ||
+            t instanceof CharTree || t instanceof ScientificNTree || t instanceof IntTypeTree ||
+            t instanceof FloatTypeTree || t instanceof CharTypeTree || t instanceof BoolTypeTree;
+    }
+
 /** <pre>
  *      e -> se
  *        -> se '==' se  ==> =
@@ -300,14 +856,7 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rExpr() throws SyntaxError {
-        AST t, kid = rSimpleExpr();
-        t = getRelationTree();
-        if (t == null) {
-            return kid;
-        }
-        t.addKid(kid);
-        t.addKid(rSimpleExpr());
-        return t;
+        return rExpr(RELATION);
     }
 
 /** <pre>
@@ -322,13 +871,7 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rSimpleExpr() throws SyntaxError {
-        AST t, kid = rTerm();
-        while ( (t = getAddOperTree()) != null) {
-            t.addKid(kid);
-            t.addKid(rTerm());
-            kid = t;
-        }
-        return kid;
+        return rExpr(ADDING);
     }
 
 /** <pre>
@@ -343,13 +886,7 @@ public class Parser {
  *  @exception SyntaxError - thrown for any syntax error
 */
     public AST rTerm() throws SyntaxError {
-        AST t, kid = rFactor();
-        while ( (t = getMultOperTree()) != null) {
-            t.addKid(kid);
-            t.addKid(rFactor());
-            kid = t;
-        }
-        return kid;
+        return rExpr(MULTIPLYING);
     }
 
 /** <pre>
@@ -364,63 +901,158 @@ public class Parser {
  *  @return the tree corresponding to the factor expression
  *  @exception SyntaxError - thrown for any syntax error
 */
-    
     public AST rFactor() throws SyntaxError {
-        AST t;
-        if (isNextTok(Tokens.LeftParen)) { // -> (e)
-            scan();
-            t = rExpr();
-            expect(Tokens.RightParen);
-            return t;
-        }
-        
-        if (isNextTok(Tokens.Not) || isNextTok(Tokens.Minus)) { // -> "!" or "-"
-        	  t = getUnaryOperTree();
-        	  t.addKid(rExpr());
-        	  return t;
-        }
-
-        if (isNextTok(Tokens.INTeger)) {  //  -> <int>
-            t = new IntTree(currentToken);
-            scan();
-            return t;
-        }
-        
-        if (isNextTok(Tokens.FLOat)) {  // -> <float>
-        	t = new FloatTree(currentToken);
-            scan();
-            return t;
-        }
-        if (isNextTok(Tokens.CHar)) {  // ->  <char>
-            t = new CharTree(currentToken);
-            scan();
-            return t;
-        }
-        if (isNextTok(Tokens.ScientificN)) {
-        	t = new ScientificNTree(currentToken);
-        	scan();
-        	return t;
-        }
+        return rExpr(FACTOR);
+    }
 
-        
-        t = rName();
-        if (!isNextTok(Tokens.LeftParen)) {  //  -> name
-            return t;
-        }
-        scan();     // -> name '(' (e list ',')? ) ==> call
-        t = (new CallTree()).addKid(t);    
-        if (!isNextTok(Tokens.RightParen)) {
-            do {
-                t.addKid(rExpr());
-                if (isNextTok(Tokens.Comma)) {
+/**
+ *  Parse an expression by precedence climbing; the binding power of the
+ *  next operator (see bindingPowers) decides whether it joins the
+ *  expression being built. The trees are those of the rules above: an
+ *  operator takes the operands of higher power to its right, a unary
+ *  operator takes a whole e, and an e has at most one relational
+ *  operator<br>
+ *  An operand that starts an expression of its own - '(' e ')', a unary
+ *  operator, an actual argument or the right operand of an operator -
+ *  pushes the expression being built onto a stack instead of recursing,
+ *  so machine-generated expressions cannot overflow the Java stack
+ *  @param minPower is the least binding power of an operator that may
+ *  join the expression; FACTOR parses a single f
+ *  @return the tree corresponding to the expression
+ *  @exception SyntaxError - thrown for any syntax error
+*/
+    private AST rExpr(int minPower) throws SyntaxError {
+        int base = depth;   // frames below base belong to an enclosing call
+        int kind = TOP;     // the expression being built, as in a frame
+        AST tree = null;
+        int power = minPower;
+        boolean related = false;
+        int start = cursor; // first token of the expression being built
+        while (true) {
+            AST t;  // the first operand of the expression
+            int tStart = cursor;  // first token of t, with any parens around it
+            switch (predict(ParseTable.F)) {
+            case ParseTable.F_PAREN:  // -> '(' e ')'
+                scan();
+                push(kind, tree, power, related, start);
+                kind = PAREN;
+                tree = null;
+                power = RELATION;
+                related = false;
+                start = tStart;
+                continue;
+            case ParseTable.F_UNARY:  // -> "!" e or "-" e
+                push(kind, tree, power, related, start);
+                kind = UNARY;
+                tree = getUnaryOperTree();
+                power = RELATION;
+                related = false;
+                start = tStart;
+                continue;
+            case ParseTable.F_INT:  //  -> <int>
+                t = node(new IntTree(tokens.symbol(cursor)));
+                t.setSpan(cursor, cursor + 1);
+                scan();
+                break;
+            case ParseTable.F_FLOAT:  // -> <float>
+                t = node(new FloatTree(tokens.symbol(cursor)));
+                t.setSpan(cursor, cursor + 1);
+                scan();
+                break;
+            case ParseTable.F_CHAR:  // ->  <char>
+                t = node(new CharTree(tokens.symbol(cursor)));
+                t.setSpan(cursor, cursor + 1);
+                scan();
+                break;
+            case ParseTable.F_SCIENTIFIC_N:
+                t = node(new ScientificNTree(tokens.symbol(cursor)));
+                t.setSpan(cursor, cursor + 1);
+                scan();
+                break;
+            default:
+                t = rName();
+                if (predict(ParseTable.CALL) == ParseTable.CALL_CALL) {  // -> name '(' (e list ',')? ')' ==> call
                     scan();
-                } else {
+                    t = node(new CallTree()).addKid(t);
+                    if (predict(ParseTable.ARGS) == ParseTable.ARGS_ARGS) {
+                        push(kind, tree, power, related, start);
+                        kind = ARG;
+                        tree = t;
+                        power = RELATION;
+                        related = false;
+                        start = tStart;
+                        continue;
+                    }
+                    expect(Tokens.RightParen);
+                    t.setSpan(tStart, cursor);
+                }
+            }
+            // join operators to t, finishing the expressions it completes,
+            // until one needs its right operand or another argument is due
+            while (true) {
+                int opPower = bindingPower(tokens.kind(cursor));
+                if (opPower >= power && !(opPower == RELATION && related)) {
+                    AST op = (opPower == RELATION) ? getRelationTree() :
+                        (opPower == ADDING) ? getAddOperTree() : getMultOperTree();
+                    op.addKid(t);
+                    push(kind, tree, power, related || opPower == RELATION, start);
+                    kind = OPERAND;
+                    tree = op;
+                    power = opPower + 1;
+                    related = false;
+                    start = tStart;
                     break;
                 }
-            } while (true);
+                if (kind == TOP) {
+                    depth = base;
+                    return t;
+                }
+                if (kind == PAREN) {
+                    expect(Tokens.RightParen);
+                } else if (kind == ARG) {
+                    tree.addKid(t);
+                    if (predict(ParseTable.MOREARGS) == ParseTable.MOREARGS_MORE) {
+                        scan();
+                        related = false;
+                        break;
+                    }
+                    expect(Tokens.RightParen);
+                    t = tree;
+                    t.setSpan(start, cursor);
+                } else {  // UNARY or OPERAND
+                    tree.addKid(t);
+                    t = tree;
+                    t.setSpan(start, cursor);
+                }
+                tStart = start;
+                depth--;  // pop the enclosing expression
+                kind = frameKinds[depth];
+                tree = frameTrees[depth];
+                power = framePowers[depth];
+                related = frameRelated[depth];
+                start = frameStarts[depth];
+            }
         }
-        expect(Tokens.RightParen);
-        return t;
+    }
+
+    /**
+     * Saves an expression being built by rExpr(int) on the stack
+     */
+    private void push(int kind, AST tree, int power, boolean related, int start) {
+        if (depth == frameKinds.length) {
+            int size = 2 * depth;
+            frameKinds = Arrays.copyOf(frameKinds, size);
+            frameTrees = Arrays.copyOf(frameTrees, size);
+            framePowers = Arrays.copyOf(framePowers, size);
+            frameRelated = Arrays.copyOf(frameRelated, size);
+            frameStarts = Arrays.copyOf(frameStarts, size);
+        }
+        frameKinds[depth] = kind;
+        frameTrees[depth] = tree;
+        framePowers[depth] = power;
+        frameRelated[depth] = related;
+        frameStarts[depth] = start;
+        depth++;
     }
 
 /** <pre>
@@ -432,11 +1064,12 @@ public class Parser {
     public AST rName() throws SyntaxError {
         AST t;
         if (isNextTok(Tokens.Identifier)) {
-            t = new IdTree(currentToken);
+            t = node(new IdTree(tokens.symbol(cursor)));
+            t.setSpan(cursor, cursor + 1);
             scan();
             return t;
         }
-        throw new SyntaxError(currentToken,Tokens.Identifier);
+        throw new SyntaxError(tokens.token(cursor),Tokens.Identifier);
     }
     
     /**
@@ -444,9 +1077,9 @@ public class Parser {
      * @return AST of correct relational operator
      */
     AST getRelationTree() {  // build tree with current token's relation
-    	Tokens kind = currentToken.getKind();
+    	Tokens kind = tokens.kind(cursor);
     	if (relationalOps.contains(kind)) {
-    		AST t = new RelOpTree(currentToken);
+    		AST t = node(new RelOpTree(tokens.symbol(cursor)));
     		scan();
     		return t;
     	} else {
@@ -459,9 +1092,9 @@ public class Parser {
      * @return AST of correct add operator 
      */
     private AST getAddOperTree() {
-    	Tokens kind = currentToken.getKind();
+    	Tokens kind = tokens.kind(cursor);
     	if (addingOps.contains(kind)) {
-    		AST t = new AddOpTree(currentToken);
+    		AST t = node(new AddOpTree(tokens.symbol(cursor)));
     		scan();
     		return t;
     	} else {
@@ -474,9 +1107,9 @@ public class Parser {
      * @return AST of correct multiply operator
      */
     private AST getMultOperTree() {
-    	Tokens kind = currentToken.getKind();
+    	Tokens kind = tokens.kind(cursor);
        	if (multiplyingOps.contains(kind)) {
-    		AST t = new MultOpTree(currentToken);
+    		AST t = node(new MultOpTree(tokens.symbol(cursor)));
     		scan();
     		return t;
     	} else {
@@ -489,9 +1122,9 @@ public class Parser {
      * @return AST of correct Unary operator
      */
     private AST getUnaryOperTree() {
-    	Tokens kind = currentToken.getKind();
+    	Tokens kind = tokens.kind(cursor);
     	if (unaryOps.contains(kind)) {
-    		AST t = new UnaryOpTree(currentToken);
+    		AST t = node(new UnaryOpTree(tokens.symbol(cursor)));
     		scan();
     		return t;
     	} else {
@@ -499,16 +1132,51 @@ public class Parser {
     	}
     }
     
+    /**
+     * Builds the binding power table from the predictions of the
+     * operator rules of the grammar
+     * @return the binding power of each token kind, by ordinal
+     */
+    private int[] bindingPowers() {
+        int[] power = new int[ParseTable.END + 1];
+        for (int kind = 0; kind < power.length; kind++) {
+            if (ParseTable.ETAIL[kind] == ParseTable.ETAIL_RELATION) {
+                power[kind] = RELATION;
+            } else if (ParseTable.SETAIL[kind] == ParseTable.SETAIL_ADDING) {
+                power[kind] = ADDING;
+            } else if (ParseTable.TTAIL[kind] == ParseTable.TTAIL_MULTIPLYING) {
+                power[kind] = MULTIPLYING;
+            }
+        }
+        return power;
+    }
+
+    /**
+     * Gives the binding power of a token as a binary operator
+     * @param kind is the token type, or null past the end of the tokens
+     * @return the binding power, or 0 if it is not a binary operator
+     */
+    private int bindingPower(Tokens kind) {
+        return bindingPower[(kind == null) ? ParseTable.END : kind.ordinal()];
+    }
+
+    /**
+     * Predicts the alternative of a rule from the current token
+     * @param table is the prediction table of the rule (see ParseTable)
+     * @return the alternative predicted
+     */
+    private int predict(byte[] table) {
+        Tokens kind = tokens.kind(cursor);
+        return table[(kind == null) ? ParseTable.END : kind.ordinal()];
+    }
+
     /**
      * Checks to see if token is a certain kind
      * @param kind is the token type to be checked
      * @return True if token is a certain kind, false otherwise
      */
     private boolean isNextTok(Tokens kind) {
-        if ((currentToken == null) || (currentToken.getKind() != kind)) {
-            return false;
-        }
-        return true;
+        return tokens.kind(cursor) == kind;
     }
 
     /**
@@ -521,46 +1189,14 @@ public class Parser {
             scan();
             return;
         }
-        throw new SyntaxError(currentToken,kind);
+        throw new SyntaxError(tokens.token(cursor),kind);
     }
 
     /**
      * Scans for the next token
      */
     private void scan() {
-        currentToken = lex.nextToken();
+        cursor++;
         return;
     }
 }
-
-class SyntaxError extends Exception {
-    /**
-	 * 
-	 */
-	private static final long serialVersionUID = 1L;
-	/**
-	 * 
-	 */
-	private Token tokenFound;
-    private Tokens kindExpected;
-    
-/**
- *  record the syntax error just encountered
- *  @param tokenFound is the token just found by the parser
- *  @param kindExpected is the token we expected to find based on 
- *  the current context
-*/
-    public SyntaxError(Token tokenFound, Tokens kindExpected) {
-        this.tokenFound = tokenFound;
-        this.kindExpected = kindExpected;
-    }
-    
-    /**
-     *  Print out the expected token
-     */
-    void print() {
-        System.out.println("Expected: " + 
-           kindExpected);
-        return;
-    }
-}
\ No newline at end of file
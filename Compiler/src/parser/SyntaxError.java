@@ -0,0 +1,47 @@
+package parser;
+
+import lexer.*;
+
+/**
+ *  A SyntaxError is thrown by the Parser when the token found is not one
+ *  the grammar allows (see Diagnostic)
+*/
+class SyntaxError extends Exception {
+    /**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+    private Diagnostic diagnostic;
+    boolean reported;  // if true then it has been recorded (see Parser.report)
+    
+/**
+ *  record the syntax error just encountered
+ *  @param tokenFound is the token just found by the parser
+ *  @param kindExpected is the token we expected to find based on 
+ *  the current context
+*/
+    public SyntaxError(Token tokenFound, Tokens kindExpected) {
+        this(new Diagnostic(tokenFound, kindExpected));
+    }
+
+/**
+ *  @param diagnostic describes the error; no stack trace is taken, as
+ *  the parser recovers from most errors
+*/
+    SyntaxError(Diagnostic diagnostic) {
+        super(diagnostic.toString(), null, false, false);
+        this.diagnostic = diagnostic;
+    }
+
+    Diagnostic getDiagnostic() {
+        return diagnostic;
+    }
+    
+    /**
+     *  Print out the expected token and the token found
+     */
+    void print() {
+        diagnostic.print();
+        return;
+    }
+}
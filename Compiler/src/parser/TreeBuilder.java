@@ -0,0 +1,37 @@
+package parser;
+
+import java.util.ArrayList;
+import ast.*;
+
+/**
+ *  TreeBuilder builds the AST from the nodes a Parser streams to it, for
+ *  listeners that need the whole tree
+*/
+public class TreeBuilder implements ParseListener {
+    private ArrayList<AST> open = new ArrayList<AST>();  // nodes entered but not left
+    private AST tree;
+
+    public void enter(AST t) {
+        literal(t);
+        open.add(t);
+    }
+
+    public void leave(AST t) {
+        open.remove(open.size() - 1);
+    }
+
+    public void literal(AST t) {
+        if (open.isEmpty()) {
+            tree = t;
+        } else {
+            open.get(open.size() - 1).addKid(t);
+        }
+    }
+
+/**
+ *  @return the tree whose nodes have been received
+*/
+    public AST getTree() {
+        return tree;
+    }
+}
@@ -0,0 +1,371 @@
+package parser.setup;
+
+import java.util.*;
+import java.io.*;
+
+/**
+ *  ParserSetup reads the grammar of X from file <i>grammar</i> and builds
+ *  the LL(1) prediction tables of the Parser in <i>ParseTable.java</i><br>
+ *  The FIRST and FOLLOW sets of the nonterminals are computed and, for
+ *  each nonterminal whose alternatives are labelled, a table giving the
+ *  alternative each kind of token predicts; the tables are indexed by
+ *  <i>Tokens.ordinal()</i> so each prediction is one array lookup.
+ *  Terminals are looked up in the <i>tokens</i> file of lexer.setup<br>
+ *  Two alternatives starting with the same token are an error; a token
+ *  that can both start an alternative and follow an empty one predicts
+ *  the alternative it starts, which is reported (see the grammar file)<br>
+ *  Therefore, if the grammar changes we modify the file <i>grammar</i>,
+ *  run this program again and then the Parser's actions for the labels
+*/
+public class ParserSetup {
+    private ArrayList<String> types = new ArrayList<String>(),   // terminals, in tokens file order
+        values = new ArrayList<String>();                        // with their printstrings
+    private int end;  // terminal number standing for the end of the tokens
+
+    private ArrayList<String> nonterminals = new ArrayList<String>();
+    // for each nonterminal its alternatives, each a list of symbols: a
+    // terminal number or -1 - the nonterminal number
+    private ArrayList<ArrayList<int[]>> alternatives = new ArrayList<ArrayList<int[]>>();
+    private ArrayList<ArrayList<String>> labels = new ArrayList<ArrayList<String>>();
+    private ArrayList<String[]> pending = new ArrayList<String[]>();  // symbols read; nonterminals are resolved at the end
+
+    private boolean[] nullable;
+    private BitSet[] first, follow;
+    private int[][] predict;  // for each nonterminal the alternative for each terminal, or -1
+
+    public static void main(String args[]) throws IOException {
+        String sep = System.getProperty("file.separator");
+        ParserSetup setup = new ParserSetup();
+        setup.readTokens("lexer" + sep + "setup" + sep + "tokens");
+        setup.readGrammar("parser" + sep + "setup" + sep + "grammar");
+        setup.computeSets();
+        setup.buildTables();
+        PrintWriter out = new PrintWriter(new FileOutputStream("parser" + sep + "ParseTable.java"));
+        setup.write(out);
+        out.close();
+    }
+
+/**
+ *  read the token types and printstrings, one pair per line
+*/
+    void readTokens(String file) throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        String line;
+        while ((line = in.readLine()) != null) {
+            StringTokenizer st = new StringTokenizer(line);
+            if (st.countTokens() >= 2) {
+                types.add(st.nextToken());
+                values.add(st.nextToken());
+            }
+        }
+        in.close();
+        end = types.size();
+    }
+
+/**
+ *  read the rules of the grammar; see the file <i>grammar</i> for the format
+*/
+    void readGrammar(String file) throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        String line;
+        int lineno = 0, current = -1;
+        while ((line = in.readLine()) != null) {
+            lineno++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] words = line.trim().split("\\s+");
+            if (words.length == 0 || words[0].isEmpty()) {
+                continue;
+            }
+            int i = 0;
+            if (words.length > 1 && words[1].equals("->")) {
+                current = nonterminals.indexOf(words[0]);
+                if (current >= 0) {
+                    error(lineno, "rule for " + words[0] + " given twice");
+                }
+                current = nonterminals.size();
+                nonterminals.add(words[0]);
+                alternatives.add(new ArrayList<int[]>());
+                labels.add(new ArrayList<String>());
+                i = 2;
+            } else if (words[0].equals("|") && current >= 0) {
+                i = 1;
+            } else {
+                error(lineno, "expected a rule or an alternative");
+            }
+            // the alternatives on this line, separated by |
+            ArrayList<String> symbols = new ArrayList<String>();
+            String label = null;
+            for (; i <= words.length; i++) {
+                if (i == words.length || words[i].equals("|")) {
+                    pending.add(symbols.toArray(new String[symbols.size()]));
+                    alternatives.get(current).add(null);
+                    labels.get(current).add(label);
+                    symbols = new ArrayList<String>();
+                    label = null;
+                } else if (words[i].equals("==>")) {
+                    if (i + 1 >= words.length) {
+                        error(lineno, "missing label");
+                    }
+                    label = words[++i];
+                } else {
+                    symbols.add(words[i]);
+                }
+            }
+        }
+        in.close();
+        // now that all of the nonterminals are known, number the symbols
+        int p = 0;
+        for (int n = 0; n < nonterminals.size(); n++) {
+            ArrayList<int[]> alts = alternatives.get(n);
+            for (int a = 0; a < alts.size(); a++) {
+                String[] symbols = pending.get(p++);
+                int[] numbers = new int[symbols.length];
+                for (int s = 0; s < symbols.length; s++) {
+                    numbers[s] = symbol(symbols[s]);
+                }
+                alts.set(a, numbers);
+            }
+            boolean labelled = labels.get(n).get(0) != null;
+            for (String label : labels.get(n)) {
+                if ((label != null) != labelled) {
+                    error(0, "either all or none of the alternatives of " + nonterminals.get(n) + " are labelled");
+                }
+            }
+        }
+    }
+
+/**
+ *  @param name is a symbol from the grammar
+ *  @return its number: a terminal number or -1 - the nonterminal number
+*/
+    int symbol(String name) {
+        int n = nonterminals.indexOf(name);
+        if (n >= 0) {
+            return -1 - n;
+        }
+        if (name.length() > 2 && name.startsWith("'") && name.endsWith("'")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        int t = values.indexOf(name);
+        if (t < 0) {
+            error(0, "unknown symbol " + name);
+        }
+        return t;
+    }
+
+/**
+ *  compute the nullable nonterminals and the FIRST and FOLLOW sets
+*/
+    void computeSets() {
+        int n = nonterminals.size();
+        nullable = new boolean[n];
+        first = new BitSet[n];
+        follow = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            first[i] = new BitSet();
+            follow[i] = new BitSet();
+        }
+        follow[0].set(end);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < n; i++) {
+                for (int[] alt : alternatives.get(i)) {
+                    BitSet f = first(alt, 0);
+                    if (!contains(first[i], f)) {
+                        first[i].or(f);
+                        changed = true;
+                    }
+                    if (!nullable[i] && nullable(alt, 0)) {
+                        nullable[i] = changed = true;
+                    }
+                }
+            }
+        }
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < n; i++) {
+                for (int[] alt : alternatives.get(i)) {
+                    for (int s = 0; s < alt.length; s++) {
+                        if (alt[s] >= 0) {
+                            continue;
+                        }
+                        BitSet f = first(alt, s + 1);
+                        if (nullable(alt, s + 1)) {
+                            f.or(follow[i]);
+                        }
+                        int k = -1 - alt[s];
+                        if (!contains(follow[k], f)) {
+                            follow[k].or(f);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+/**
+ *  @return the FIRST set of the symbols of alt from index s on
+*/
+    BitSet first(int[] alt, int s) {
+        BitSet f = new BitSet();
+        for (; s < alt.length; s++) {
+            if (alt[s] >= 0) {
+                f.set(alt[s]);
+                break;
+            }
+            f.or(first[-1 - alt[s]]);
+            if (!nullable[-1 - alt[s]]) {
+                break;
+            }
+        }
+        return f;
+    }
+
+/**
+ *  @return true if the symbols of alt from index s on derive the empty string
+*/
+    boolean nullable(int[] alt, int s) {
+        for (; s < alt.length; s++) {
+            if (alt[s] >= 0 || !nullable[-1 - alt[s]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(BitSet set, BitSet subset) {
+        BitSet extra = (BitSet)subset.clone();
+        extra.andNot(set);
+        return extra.isEmpty();
+    }
+
+/**
+ *  build the prediction table of each nonterminal; the tokens that start
+ *  an alternative are entered first, then the tokens that may follow an
+ *  empty alternative where they are still free
+*/
+    void buildTables() {
+        int n = nonterminals.size();
+        predict = new int[n][];
+        for (int i = 0; i < n; i++) {
+            ArrayList<int[]> alts = alternatives.get(i);
+            int[] table = new int[end + 1];
+            Arrays.fill(table, -1);
+            for (int a = 0; a < alts.size(); a++) {
+                BitSet f = first(alts.get(a), 0);
+                for (int t = f.nextSetBit(0); t >= 0; t = f.nextSetBit(t + 1)) {
+                    if (table[t] >= 0) {
+                        error(0, "not LL(1): " + values.get(t) + " starts alternatives " +
+                            table[t] + " and " + a + " of " + nonterminals.get(i));
+                    }
+                    table[t] = a;
+                }
+            }
+            for (int a = 0; a < alts.size(); a++) {
+                if (!nullable(alts.get(a), 0)) {
+                    continue;
+                }
+                BitSet f = follow[i];
+                StringBuilder resolved = new StringBuilder();
+                for (int t = f.nextSetBit(0); t >= 0; t = f.nextSetBit(t + 1)) {
+                    if (table[t] < 0) {
+                        table[t] = a;
+                    } else if (table[t] != a) {
+                        resolved.append(' ').append(t == end ? "<end>" : values.get(t));
+                    }
+                }
+                if (resolved.length() > 0) {
+                    System.out.println("conflict in " + nonterminals.get(i) + " on" + resolved +
+                        " resolved for the alternatives they start");
+                }
+            }
+            predict[i] = table;
+        }
+    }
+
+/**
+ *  write ParseTable.java
+*/
+    void write(PrintWriter out) {
+        out.println("package parser;");
+        out.println(" ");
+        out.println("import lexer.Tokens;");
+        out.println(" ");
+        out.println("/**");
+        out.println(" *  This file is automatically generated from parser/setup/grammar<br>");
+        out.println(" *  it contains, for each nonterminal whose alternatives are labelled,");
+        out.println(" *  the alternative predicted by each kind of token, indexed by");
+        out.println(" *  Tokens.ordinal(); index END stands for the end of the tokens");
+        out.println("*/");
+        out.println("public class ParseTable {");
+        out.println("    public static final int END = " + (types.size() + 1) + ";");
+        for (int i = 0; i < nonterminals.size(); i++) {
+            ArrayList<String> names = labels.get(i);
+            if (names.get(0) == null) {
+                continue;
+            }
+            out.println(" ");
+            out.println("    // " + nonterminals.get(i) + " -> " + alternativesText(i));
+            StringBuilder line = new StringBuilder("    public static final int ");
+            for (int a = 0; a < names.size(); a++) {
+                line.append(a > 0 ? ", " : "").append(constant(i, a)).append(" = ").append(a);
+            }
+            out.println(line + ";");
+            out.println("    public static final byte[] " + nonterminals.get(i) + " = new byte[END + 1];");
+        }
+        out.println(" ");
+        out.println("    static {");
+        for (int i = 0; i < nonterminals.size(); i++) {
+            if (labels.get(i).get(0) == null) {
+                continue;
+            }
+            int last = alternatives.get(i).size() - 1;
+            String name = nonterminals.get(i);
+            out.println("        java.util.Arrays.fill(" + name + ", (byte)" + constant(i, last) + ");");
+            for (int t = 0; t <= end; t++) {
+                int a = predict[i][t];
+                if (a >= 0 && a != last) {
+                    out.println("        " + name + "[" + (t == end ? "END" : "Tokens." + types.get(t) + ".ordinal()") +
+                        "] = " + constant(i, a) + ";");
+                }
+            }
+        }
+        out.println("    }");
+        out.println("}");
+    }
+
+/**
+ *  @return the name of the constant for alternative a of nonterminal i,
+ *  e.g. DTAIL_FUNCTION_DECL for the label functionDecl
+*/
+    String constant(int i, int a) {
+        String label = labels.get(i).get(a);
+        return nonterminals.get(i) + "_" + label.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private String alternativesText(int i) {
+        StringBuilder text = new StringBuilder();
+        ArrayList<int[]> alts = alternatives.get(i);
+        for (int a = 0; a < alts.size(); a++) {
+            text.append(a > 0 ? " | " : "");
+            for (int s : alts.get(a)) {
+                String value = (s < 0) ? null : values.get(s);
+                text.append(s < 0 ? nonterminals.get(-1 - s) :
+                    value.matches("<\\w+>") ? value : "'" + value + "'").append(' ');
+            }
+            text.append("==> ").append(labels.get(i).get(a));
+        }
+        return text.toString();
+    }
+
+    private void error(int lineno, String message) {
+        System.out.println("***grammar" + (lineno > 0 ? " line " + lineno : "") + ": " + message + "***");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,126 @@
+package visitor;
+
+import ast.*;
+
+/**
+ *  ASTVisitorAdapter lets an ASTVisitor be used where a GenericASTVisitor
+ *  is expected; each visit is passed on to the ASTVisitor, which ignores
+ *  the context, and its result is returned as it is
+*/
+public class ASTVisitorAdapter<C> extends GenericASTVisitor<Object, C> {
+    private final ASTVisitor v;
+
+/**
+ *  @param v is the visitor to pass the visits on to
+*/
+    public ASTVisitorAdapter(ASTVisitor v) {
+        this.v = v;
+    }
+
+/**
+ *  @return the visitor the visits are passed on to
+*/
+    public ASTVisitor getVisitor() {
+        return v;
+    }
+
+    public Object visitProgramTree(ProgramTree t, C c) {
+        return v.visitProgramTree(t);
+    }
+
+    public Object visitBlockTree(BlockTree t, C c) {
+        return v.visitBlockTree(t);
+    }
+
+    public Object visitFunctionDeclTree(FunctionDeclTree t, C c) {
+        return v.visitFunctionDeclTree(t);
+    }
+
+    public Object visitCallTree(CallTree t, C c) {
+        return v.visitCallTree(t);
+    }
+
+    public Object visitDeclTree(DeclTree t, C c) {
+        return v.visitDeclTree(t);
+    }
+
+    public Object visitIntTypeTree(IntTypeTree t, C c) {
+        return v.visitIntTypeTree(t);
+    }
+
+    public Object visitBoolTypeTree(BoolTypeTree t, C c) {
+        return v.visitBoolTypeTree(t);
+    }
+
+    public Object visitFormalsTree(FormalsTree t, C c) {
+        return v.visitFormalsTree(t);
+    }
+
+    public Object visitActualArgsTree(ActualArgsTree t, C c) {
+        return v.visitActualArgsTree(t);
+    }
+
+    public Object visitIfTree(IfTree t, C c) {
+        return v.visitIfTree(t);
+    }
+
+    public Object visitWhileTree(WhileTree t, C c) {
+        return v.visitWhileTree(t);
+    }
+
+    public Object visitReturnTree(ReturnTree t, C c) {
+        return v.visitReturnTree(t);
+    }
+
+    public Object visitAssignTree(AssignTree t, C c) {
+        return v.visitAssignTree(t);
+    }
+
+    public Object visitIntTree(IntTree t, C c) {
+        return v.visitIntTree(t);
+    }
+
+    public Object visitIdTree(IdTree t, C c) {
+        return v.visitIdTree(t);
+    }
+
+    public Object visitRelOpTree(RelOpTree t, C c) {
+        return v.visitRelOpTree(t);
+    }
+
+    public Object visitAddOpTree(AddOpTree t, C c) {
+        return v.visitAddOpTree(t);
+    }
+
+    public Object visitMultOpTree(MultOpTree t, C c) {
+        return v.visitMultOpTree(t);
+    }
+
+    public Object visitCharTree(CharTree t, C c) {
+        return v.visitCharTree(t);
+    }
+
+    public Object visitCharTypeTree(CharTypeTree t, C c) {
+        return v.visitCharTypeTree(t);
+    }
+
+    public Object visitDoWhileTree(DoWhileTree t, C c) {
+        return v.visitDoWhileTree(t);
+    }
+
+    public Object visitFloatTree(FloatTree t, C c) {
+        return v.visitFloatTree(t);
+    }
+
+    public Object visitFloatTypeTree(FloatTypeTree t, C c) {
+        return v.visitFloatTypeTree(t);
+    }
+
+    public Object visitScientificNTree(ScientificNTree t, C c) {
+        return v.visitScientificNTree(t);
+    }
+
+    public Object visitUnaryOpTree(UnaryOpTree t, C c) {
+        return v.visitUnaryOpTree(t);
+    }
+}
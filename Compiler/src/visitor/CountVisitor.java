@@ -1,6 +1,7 @@
 package visitor;
 
 import ast.AST;
+import ast.ParseListener;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,7 +9,7 @@ import java.util.List;
  * CountVisitor is used to count the number of nodes and depth of an AST
  */
 
-public class CountVisitor extends ASTVisitor {
+public class CountVisitor extends ASTVisitor implements ParseListener {
     
     private int [] nCount = new int[100];
     private int depth = 0;
@@ -27,6 +28,24 @@ public class CountVisitor extends ASTVisitor {
         visitKids(t);
         depth--;
     }
+
+    /**
+     * Counts the nodes a Parser streams (see Parser.execute(ParseListener));
+     * the nodes entered are counted before their kids
+     * @param t The node entered
+     */
+    public void enter(AST t) {
+        count(t);
+        depth++;
+    }
+
+    public void leave(AST t) {
+        depth--;
+    }
+
+    public void literal(AST t) {
+        count(t);
+    }
     
     /**
      * Getter method for array
@@ -0,0 +1,55 @@
+package visitor;
+
+import java.util.ArrayList;
+import ast.*;
+
+/**
+ *  GenericASTVisitor is the root of the typed visitors: each node asks the
+ *  visitor method for its own class to visit it, with a context chosen by
+ *  the visitor (e.g. the enclosing scope) passed down the tree, and the
+ *  visit returns an R; so no visitor casts the nodes or the results<br>
+ *  A visitor that returns an int or nothing at all should extend
+ *  IntASTVisitor or VoidASTVisitor instead, so that no result is boxed.
+ *  An ASTVisitor may be visited as a GenericASTVisitor through
+ *  ASTVisitorAdapter
+*/
+public abstract class GenericASTVisitor<R, C> {
+
+/**
+ *  visit the kids of a node in order
+ *  @param t is the node
+ *  @param c is the context passed to each kid
+*/
+    public void visitKids(AST t, C c) {
+        ArrayList<AST> kids = t.getKids();
+        for (int i = 0; i < kids.size(); i++) {  // no Iterator for each node
+            kids.get(i).accept(this, c);
+        }
+    }
+
+    public abstract R visitProgramTree(ProgramTree t, C c);
+    public abstract R visitBlockTree(BlockTree t, C c);
+    public abstract R visitFunctionDeclTree(FunctionDeclTree t, C c);
+    public abstract R visitCallTree(CallTree t, C c);
+    public abstract R visitDeclTree(DeclTree t, C c);
+    public abstract R visitIntTypeTree(IntTypeTree t, C c);
+    public abstract R visitBoolTypeTree(BoolTypeTree t, C c);
+    public abstract R visitFormalsTree(FormalsTree t, C c);
+    public abstract R visitActualArgsTree(ActualArgsTree t, C c);
+    public abstract R visitIfTree(IfTree t, C c);
+    public abstract R visitWhileTree(WhileTree t, C c);
+    public abstract R visitReturnTree(ReturnTree t, C c);
+    public abstract R visitAssignTree(AssignTree t, C c);
+    public abstract R visitIntTree(IntTree t, C c);
+    public abstract R visitIdTree(IdTree t, C c);
+    public abstract R visitRelOpTree(RelOpTree t, C c);
+    public abstract R visitAddOpTree(AddOpTree t, C c);
+    public abstract R visitMultOpTree(MultOpTree t, C c);
+    public abstract R visitCharTree(CharTree t, C c);
+    public abstract R visitCharTypeTree(CharTypeTree t, C c);
+    public abstract R visitDoWhileTree(DoWhileTree t, C c);
+    public abstract R visitFloatTree(FloatTree t, C c);
+    public abstract R visitFloatTypeTree(FloatTypeTree t, C c);
+    public abstract R visitScientificNTree(ScientificNTree t, C c);
+    public abstract R visitUnaryOpTree(UnaryOpTree t, C c);
+}
@@ -0,0 +1,51 @@
+package visitor;
+
+import java.util.ArrayList;
+import ast.*;
+
+/**
+ *  IntASTVisitor is a typed visitor (see GenericASTVisitor) whose visits
+ *  return an int, e.g. a count, a size or a flag; the results are never
+ *  boxed, so a pass that allocates nothing else allocates nothing for
+ *  each node
+*/
+public abstract class IntASTVisitor<C> {
+
+/**
+ *  visit the kids of a node in order
+ *  @param t is the node
+ *  @param c is the context passed to each kid
+*/
+    public void visitKids(AST t, C c) {
+        ArrayList<AST> kids = t.getKids();
+        for (int i = 0; i < kids.size(); i++) {  // no Iterator for each node
+            kids.get(i).accept(this, c);
+        }
+    }
+
+    public abstract int visitProgramTree(ProgramTree t, C c);
+    public abstract int visitBlockTree(BlockTree t, C c);
+    public abstract int visitFunctionDeclTree(FunctionDeclTree t, C c);
+    public abstract int visitCallTree(CallTree t, C c);
+    public abstract int visitDeclTree(DeclTree t, C c);
+    public abstract int visitIntTypeTree(IntTypeTree t, C c);
+    public abstract int visitBoolTypeTree(BoolTypeTree t, C c);
+    public abstract int visitFormalsTree(FormalsTree t, C c);
+    public abstract int visitActualArgsTree(ActualArgsTree t, C c);
+    public abstract int visitIfTree(IfTree t, C c);
+    public abstract int visitWhileTree(WhileTree t, C c);
+    public abstract int visitReturnTree(ReturnTree t, C c);
+    public abstract int visitAssignTree(AssignTree t, C c);
+    public abstract int visitIntTree(IntTree t, C c);
+    public abstract int visitIdTree(IdTree t, C c);
+    public abstract int visitRelOpTree(RelOpTree t, C c);
+    public abstract int visitAddOpTree(AddOpTree t, C c);
+    public abstract int visitMultOpTree(MultOpTree t, C c);
+    public abstract int visitCharTree(CharTree t, C c);
+    public abstract int visitCharTypeTree(CharTypeTree t, C c);
+    public abstract int visitDoWhileTree(DoWhileTree t, C c);
+    public abstract int visitFloatTree(FloatTree t, C c);
+    public abstract int visitFloatTypeTree(FloatTypeTree t, C c);
+    public abstract int visitScientificNTree(ScientificNTree t, C c);
+    public abstract int visitUnaryOpTree(UnaryOpTree t, C c);
+}
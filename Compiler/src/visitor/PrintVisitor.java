@@ -15,7 +15,7 @@ import ast.*;
  *  7.   Kid3
  *  </pre>
 */
-public class PrintVisitor extends ASTVisitor {
+public class PrintVisitor extends ASTVisitor implements ParseListener {
     private int indent = 0;
 
     private void printSpaces(int num) {
@@ -62,6 +62,24 @@ public class PrintVisitor extends ASTVisitor {
         indent -= 2;
     }
 
+/**
+ *  Print the nodes a Parser streams (see Parser.execute(ParseListener));
+ *  a node has no kids when it is entered, so only its own line is printed
+ *  and the kids that follow are indented until it is left
+*/
+    public void enter(AST t) {
+        t.accept(this);
+        indent += 2;
+    }
+
+    public void leave(AST t) {
+        indent -= 2;
+    }
+
+    public void literal(AST t) {
+        t.accept(this);
+    }
+
     public Object visitProgramTree(AST t) { print("Program",t);  return null; }
     public Object visitBlockTree(AST t) { print("Block",t);  return null; }
     public Object visitFunctionDeclTree(AST t) { print("FunctionDecl",t);  return null; }
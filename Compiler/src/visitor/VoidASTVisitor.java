@@ -0,0 +1,50 @@
+package visitor;
+
+import java.util.ArrayList;
+import ast.*;
+
+/**
+ *  VoidASTVisitor is a typed visitor (see GenericASTVisitor) whose visits
+ *  return nothing, e.g. one that decorates the tree or gathers its results
+ *  in the context
+*/
+public abstract class VoidASTVisitor<C> {
+
+/**
+ *  visit the kids of a node in order
+ *  @param t is the node
+ *  @param c is the context passed to each kid
+*/
+    public void visitKids(AST t, C c) {
+        ArrayList<AST> kids = t.getKids();
+        for (int i = 0; i < kids.size(); i++) {  // no Iterator for each node
+            kids.get(i).accept(this, c);
+        }
+    }
+
+    public abstract void visitProgramTree(ProgramTree t, C c);
+    public abstract void visitBlockTree(BlockTree t, C c);
+    public abstract void visitFunctionDeclTree(FunctionDeclTree t, C c);
+    public abstract void visitCallTree(CallTree t, C c);
+    public abstract void visitDeclTree(DeclTree t, C c);
+    public abstract void visitIntTypeTree(IntTypeTree t, C c);
+    public abstract void visitBoolTypeTree(BoolTypeTree t, C c);
+    public abstract void visitFormalsTree(FormalsTree t, C c);
+    public abstract void visitActualArgsTree(ActualArgsTree t, C c);
+    public abstract void visitIfTree(IfTree t, C c);
+    public abstract void visitWhileTree(WhileTree t, C c);
+    public abstract void visitReturnTree(ReturnTree t, C c);
+    public abstract void visitAssignTree(AssignTree t, C c);
+    public abstract void visitIntTree(IntTree t, C c);
+    public abstract void visitIdTree(IdTree t, C c);
+    public abstract void visitRelOpTree(RelOpTree t, C c);
+    public abstract void visitAddOpTree(AddOpTree t, C c);
+    public abstract void visitMultOpTree(MultOpTree t, C c);
+    public abstract void visitCharTree(CharTree t, C c);
+    public abstract void visitCharTypeTree(CharTypeTree t, C c);
+    public abstract void visitDoWhileTree(DoWhileTree t, C c);
+    public abstract void visitFloatTree(FloatTree t, C c);
+    public abstract void visitFloatTypeTree(FloatTypeTree t, C c);
+    public abstract void visitScientificNTree(ScientificNTree t, C c);
+    public abstract void visitUnaryOpTree(UnaryOpTree t, C c);
+}